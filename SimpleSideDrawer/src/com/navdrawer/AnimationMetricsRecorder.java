@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import android.os.Build;
+
+/**
+ * <p>Measure the drawer animations for SimpleSideDrawer.OnAnimationMetricsListener.</p>
+ * <p>Frames are counted when the drawer moves an animation step, and dropped frames are detected
+ * from the Choreographer vsync timestamps (or the frame timestamps before Android 4.1).
+ * Nothing is allocated per frame.</p>
+ * @author Masahiko Adachi
+ */
+class AnimationMetricsRecorder {
+    private static final boolean VSYNC_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    
+    private final DrawerAnimationMetrics mMetrics = new DrawerAnimationMetrics();
+    private final long mFrameIntervalNanos;
+    private final DrawerFrameTicker.Client mVsyncClient = new VsyncClient();
+    private SimpleSideDrawer.OnAnimationMetricsListener mListener;
+    private boolean mRunning;
+    private boolean mStarting;
+    private long mPendingRequestNanos;
+    private long mRequestTimeNanos;
+    private long mLastFrameTimeNanos;
+    
+    AnimationMetricsRecorder(float refreshRate) {
+        if (refreshRate < 1f) {
+            refreshRate = 60f;
+        }
+        mFrameIntervalNanos = (long) (1000000000L / refreshRate);
+    }
+    
+    void setListener(SimpleSideDrawer.OnAnimationMetricsListener listener) {
+        if (listener == null && mRunning) {
+            stopVsync();
+            mRunning = false;
+        }
+        mListener = listener;
+    }
+    
+    boolean isEnabled() {
+        return mListener != null;
+    }
+    
+    /**
+     * Called when the open/close method is called, before it prepares the behind view,
+     * so that the first frame latency includes the inflation and the measure of the menu.
+     * The time is used by the next start(), a drag release starts from its own time.
+     */
+    void markRequest() {
+        if (mListener == null) return;
+        mPendingRequestNanos = System.nanoTime();
+    }
+    
+    /**
+     * Called when an animation is requested, before the animator starts.
+     * @param opening true if the animation opens a behind view
+     */
+    void start(boolean opening) {
+        final long request = mPendingRequestNanos;
+        mPendingRequestNanos = 0;
+        if (mListener == null) return;
+        final long now = System.nanoTime();
+        if (mRunning) {
+            finish(now, true);
+        }
+        final DrawerAnimationMetrics m = mMetrics;
+        m.mOpening = opening;
+        m.mInterrupted = false;
+        m.mFrameCount = 0;
+        m.mDroppedFrameCount = 0;
+        m.mFrameIntervalNanos = mFrameIntervalNanos;
+        m.mFirstFrameLatencyNanos = 0;
+        m.mSettleDurationNanos = 0;
+        mRequestTimeNanos = request != 0 ? request : now;
+        mLastFrameTimeNanos = 0;
+        mRunning = true;
+        mStarting = true;
+        startVsync();
+    }
+    
+    /**
+     * Called when the animator has started. An animation which ended before, e.g. over no distance,
+     * did not draw any frame, so it is not reported.
+     */
+    void onStarted() {
+        mStarting = false;
+    }
+    
+    /**
+     * Called when the drawer moves the above view for an animation frame.
+     */
+    void onFrame() {
+        if (!mRunning || mStarting) return;
+        final DrawerAnimationMetrics m = mMetrics;
+        final long now = System.nanoTime();
+        if (m.mFrameCount == 0) {
+            m.mFirstFrameLatencyNanos = now - mRequestTimeNanos;
+        }
+        m.mFrameCount++;
+        if (!VSYNC_SUPPORTED) {
+            onFrameTime(now);
+        }
+    }
+    
+    /**
+     * Called when the animation reached its end position.
+     */
+    void end() {
+        if (!mRunning) return;
+        if (mStarting) {
+            mRunning = false;
+            stopVsync();
+            return;
+        }
+        finish(System.nanoTime(), false);
+    }
+    
+    /**
+     * Called when the animation is stopped before its end, e.g. grabbed by a drag.
+     */
+    void cancel() {
+        if (!mRunning) return;
+        finish(System.nanoTime(), true);
+    }
+    
+    private void finish(long now, boolean interrupted) {
+        mRunning = false;
+        stopVsync();
+        final DrawerAnimationMetrics m = mMetrics;
+        m.mInterrupted = interrupted;
+        m.mSettleDurationNanos = now - mRequestTimeNanos;
+        mListener.onAnimationMetrics(m);
+    }
+    
+    private void onFrameTime(long frameTimeNanos) {
+        if (mLastFrameTimeNanos != 0) {
+            final long delta = frameTimeNanos - mLastFrameTimeNanos;
+            //allow half an interval of jitter before a frame counts as dropped
+            if (mFrameIntervalNanos + mFrameIntervalNanos / 2 < delta) {
+                mMetrics.mDroppedFrameCount += (int) ((delta + mFrameIntervalNanos / 2) / mFrameIntervalNanos) - 1;
+            }
+        }
+        mLastFrameTimeNanos = frameTimeNanos;
+    }
+    
+    private void startVsync() {
+        if (!VSYNC_SUPPORTED) return;
+        DrawerFrameTicker.getInstance().add(mVsyncClient);
+    }
+    
+    private void stopVsync() {
+        if (!VSYNC_SUPPORTED) return;
+        DrawerFrameTicker.getInstance().remove(mVsyncClient);
+    }
+    
+    private class VsyncClient implements DrawerFrameTicker.Client {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mRunning) return;
+            onFrameTime(frameTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+
+/**
+ * <p>Keep the inflated behind views of finished drawers, so that the next Activity
+ * can reuse the same menu without inflating its layout again.</p>
+ * <p>Set the pool to SimpleSideDrawer.setBehindViewPool() before setting the behind views.
+ * A drawer returns its menus to the pool when it is detached from the window, and takes them
+ * from the pool when the same layout is set again under the same configuration.</p>
+ * <p>The menus are inflated with the application context. Their listeners are removed when they
+ * are returned, so set them again in OnBehindInflateListener or after setLeftBehindContentView().
+ * An adapter set to an AdapterView in the menu is kept; don't let it hold the Activity.</p>
+ * <p>The entries are dropped in the least recently used order when the pool is full,
+ * when the configuration changes, and when the system asks to trim the memory.
+ * Use this class only on the main thread.</p>
+ * @author Masahiko Adachi
+ */
+public final class BehindViewPool {
+    private static final int DEFAULT_MAX_SIZE = 4;
+    
+    private static BehindViewPool sInstance;
+    
+    private final Context mContext;
+    private final LinkedHashMap<Integer, Entry> mEntries = new LinkedHashMap<Integer, Entry>(8, 0.75f, true);
+    private int mMaxSize = DEFAULT_MAX_SIZE;
+    
+    private static class Entry {
+        final View view;
+        final Configuration configuration;
+        
+        Entry(View view, Configuration configuration) {
+            this.view = view;
+            this.configuration = configuration;
+        }
+    }
+    
+    /**
+     * Get the pool of this process.
+     * @param context Any context. Only its application context is kept.
+     * @return The pool
+     */
+    public static BehindViewPool getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new BehindViewPool(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+    
+    private BehindViewPool(Context appContext) {
+        mContext = appContext;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+            registerTrimCallbacks();
+        }
+    }
+    
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private void registerTrimCallbacks() {
+        mContext.registerComponentCallbacks(new TrimCallbacks());
+    }
+    
+    /**
+     * Set the number of the menus to keep.
+     * @param maxSize The number of the menus ( default = 4 )
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+        }
+        mMaxSize = maxSize;
+        trimToSize(maxSize);
+    }
+    
+    /**
+     * @return The number of the menus kept now
+     */
+    public int size() {
+        return mEntries.size();
+    }
+    
+    /**
+     * Drop all the menus.
+     */
+    public void evictAll() {
+        mEntries.clear();
+    }
+    
+    /**
+     * Take out the menu inflated from the layout, if it was inflated under the current configuration.
+     * @param layoutId The layout id of the menu
+     * @return The detached menu, or null if there is none to reuse
+     */
+    View acquire(int layoutId) {
+        final Entry entry = mEntries.remove(layoutId);
+        if (entry == null) return null;
+        if (entry.configuration.diff(mContext.getResources().getConfiguration()) != 0) {
+            return null;//inflated for another configuration, the resources may differ
+        }
+        return entry.view;
+    }
+    
+    /**
+     * Keep the menu for the next drawer.
+     * @param layoutId The layout id which the menu was inflated from
+     * @param view The menu, already removed from its parent
+     * @param configuration The configuration which the menu was inflated under. The resources may
+     *                      already have the next one when the Activity is destroyed for a change.
+     */
+    void release(int layoutId, View view, Configuration configuration) {
+        if (mMaxSize == 0 || view.getParent() != null) return;
+        if (view.getContext() instanceof Activity) return;//never keep an Activity alive
+        
+        stripListeners(view);
+        mEntries.put(layoutId, new Entry(view, configuration));
+        trimToSize(mMaxSize);
+    }
+    
+    private void trimToSize(int maxSize) {
+        final Iterator<Map.Entry<Integer, Entry>> it = mEntries.entrySet().iterator();
+        while (maxSize < mEntries.size() && it.hasNext()) {
+            it.next();
+            it.remove();//the eldest first
+        }
+    }
+    
+    /**
+     * The listeners are usually inner classes of the Activity which set them.
+     */
+    private static void stripListeners(View view) {
+        final boolean clickable = view.isClickable();
+        view.setOnClickListener(null);
+        view.setClickable(clickable);
+        final boolean longClickable = view.isLongClickable();
+        view.setOnLongClickListener(null);
+        view.setLongClickable(longClickable);
+        view.setOnTouchListener(null);
+        view.setOnFocusChangeListener(null);
+        view.setOnKeyListener(null);
+        
+        if (view instanceof AdapterView) {
+            final AdapterView<?> adapterView = (AdapterView<?>) view;
+            adapterView.setOnItemClickListener(null);
+            adapterView.setOnItemLongClickListener(null);
+            adapterView.setOnItemSelectedListener(null);
+            return;//the children belong to the adapter
+        }
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                stripListeners(group.getChildAt(i));
+            }
+        }
+    }
+    
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private class TrimCallbacks implements ComponentCallbacks2 {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_BACKGROUND) {
+                evictAll();
+            } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+                trimToSize(mEntries.size() / 2);
+            }
+        }
+        
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+            evictAll();
+        }
+        
+        @Override
+        public void onLowMemory() {
+            evictAll();
+        }
+    }
+}
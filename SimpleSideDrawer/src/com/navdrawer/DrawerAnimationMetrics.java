@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>The metrics of one drawer animation, delivered by SimpleSideDrawer.OnAnimationMetricsListener.</p>
+ * <p>The drawer reuses this object for every animation.
+ * Copy the values you need in the callback instead of keeping the reference.</p>
+ * @author Masahiko Adachi
+ */
+public final class DrawerAnimationMetrics {
+    boolean mOpening;
+    boolean mInterrupted;
+    int mFrameCount;
+    int mDroppedFrameCount;
+    long mFrameIntervalNanos;
+    long mFirstFrameLatencyNanos;
+    long mSettleDurationNanos;
+    
+    DrawerAnimationMetrics() {
+    }
+    
+    /**
+     * @return true if the animation slid the above view to an opened position
+     */
+    public boolean isOpening() {
+        return mOpening;
+    }
+    
+    /**
+     * @return true if the animation was replaced by another one or stopped by a drag before it finished
+     */
+    public boolean isInterrupted() {
+        return mInterrupted;
+    }
+    
+    /**
+     * @return The number of frames drawn by the animation
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+    
+    /**
+     * @return The number of vsync intervals which passed without an animation frame
+     */
+    public int getDroppedFrameCount() {
+        return mDroppedFrameCount;
+    }
+    
+    /**
+     * @return The display frame interval used to detect dropped frames, in nano seconds
+     */
+    public long getFrameIntervalNanos() {
+        return mFrameIntervalNanos;
+    }
+    
+    /**
+     * @return The time from the open/close call or the drag release to the first animation frame, in nano seconds.
+     *         It includes the inflation and the measure of a menu shown for the first time.
+     */
+    public long getFirstFrameLatencyNanos() {
+        return mFirstFrameLatencyNanos;
+    }
+    
+    /**
+     * @return The time from the open/close request to the settled position, in nano seconds
+     */
+    public long getSettleDurationNanos() {
+        return mSettleDurationNanos;
+    }
+}
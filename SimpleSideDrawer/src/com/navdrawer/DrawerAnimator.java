@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import android.view.animation.Interpolator;
+
+/**
+ * <p>Drive the drawer slide from frame callbacks instead of the draw pass.</p>
+ * <p>Every frame moves the above view through Callback.onAnimationStep() only, and the end of
+ * the animation is reported in the same frame as the last step.
+ * Calling animate() while running retargets the animation from the current position.</p>
+ * <p>With a SpringSimulation set, the position follows the spring instead of the interpolator.
+ * The duration is ignored, and a retarget keeps the current velocity.</p>
+ * <p>The frames come from the DrawerFrameTicker shared by all the drawers of the process.</p>
+ * @author Masahiko Adachi
+ */
+class DrawerAnimator {
+    //the start time until the first frame arrives
+    private static final long UNSET_TIME = -1L;
+    
+    interface Callback {
+        /**
+         * Move the above view to the animated position.
+         */
+        void onAnimationStep(int x);
+        
+        /**
+         * Called in the frame which reached the final position, after the last step.
+         */
+        void onAnimationEnd(int x);
+    }
+    
+    private final Callback mCallback;
+    private final DrawerFrameTicker.Client mTickerClient = new TickerClient();
+    private Interpolator mInterpolator;
+    private SpringSimulation mSpring;
+    private boolean mRunning;
+    private int mStartX;
+    private int mFinalX;
+    private int mCurrX;
+    private long mStartTimeNanos;
+    private long mDurationNanos;
+    private long mLastFrameTimeNanos;
+    
+    DrawerAnimator(Callback callback, Interpolator ip) {
+        mCallback = callback;
+        mInterpolator = ip;
+    }
+    
+    void setInterpolator(Interpolator ip) {
+        mInterpolator = ip;
+    }
+    
+    /**
+     * @param spring The spring to follow, or null to use the interpolator
+     */
+    void setSpring(SpringSimulation spring) {
+        cancel();
+        mSpring = spring;
+    }
+    
+    boolean isRunning() {
+        return mRunning;
+    }
+    
+    int getFinalX() {
+        return mFinalX;
+    }
+    
+    /**
+     * Start the animation, or retarget the running one.
+     * @param fromX The current position of the above view
+     * @param toX The final position
+     * @param duration The duration in msec. 0 finishes the animation immediately.
+     */
+    void animate(int fromX, int toX, int duration) {
+        animate(fromX, toX, duration, 0f);
+    }
+    
+    /**
+     * Start the animation with an initial velocity, e.g. when a drag is released.
+     * @param velocity The velocity in pixels/sec, only used by the spring
+     */
+    void animate(int fromX, int toX, int duration, float velocity) {
+        if (mSpring != null) {
+            animateSpring(fromX, toX, velocity);
+            return;
+        }
+        mStartX = fromX;
+        mCurrX = fromX;
+        mFinalX = toX;
+        //the first frame starts the clock, so only the frame times drive the animation
+        mStartTimeNanos = UNSET_TIME;
+        mDurationNanos = duration * 1000000L;
+        if (duration <= 0 || fromX == toX) {
+            unscheduleFrame();
+            mRunning = false;
+            mCurrX = toX;
+            mCallback.onAnimationStep(toX);
+            mCallback.onAnimationEnd(toX);
+            return;
+        }
+        if (!mRunning) {
+            mRunning = true;
+            scheduleFrame();
+        }
+    }
+    
+    private void animateSpring(int fromX, int toX, float velocity) {
+        final SpringSimulation spring = mSpring;
+        if (!mRunning) {
+            spring.setState(fromX, velocity);
+            mLastFrameTimeNanos = UNSET_TIME;
+        }
+        //a running spring keeps its own sub-pixel position and velocity
+        spring.setTarget(toX);
+        mFinalX = toX;
+        if (spring.isAtRest()) {
+            unscheduleFrame();
+            mRunning = false;
+            mCurrX = toX;
+            mCallback.onAnimationStep(toX);
+            mCallback.onAnimationEnd(toX);
+            return;
+        }
+        if (!mRunning) {
+            mRunning = true;
+            scheduleFrame();
+        }
+    }
+    
+    /**
+     * Stop the animation where it is, without reporting the end.
+     */
+    void cancel() {
+        if (!mRunning) return;
+        mRunning = false;
+        unscheduleFrame();
+    }
+    
+    private void doFrame(long frameTimeNanos) {
+        if (!mRunning) return;
+        
+        if (mSpring != null) {
+            doSpringFrame(frameTimeNanos);
+            return;
+        }
+        if (mStartTimeNanos == UNSET_TIME) {
+            mStartTimeNanos = frameTimeNanos;
+        }
+        final long elapsed = frameTimeNanos - mStartTimeNanos;
+        if (mDurationNanos <= elapsed) {
+            mRunning = false;
+            unscheduleFrame();
+            mCurrX = mFinalX;
+            mCallback.onAnimationStep(mCurrX);
+            mCallback.onAnimationEnd(mCurrX);
+            return;
+        }
+        final float t = DrawerMath.tweenFraction(elapsed, mDurationNanos);
+        mCurrX = DrawerMath.tweenPosition(mStartX, mFinalX, mInterpolator.getInterpolation(t));
+        mCallback.onAnimationStep(mCurrX);
+    }
+    
+    private void doSpringFrame(long frameTimeNanos) {
+        final SpringSimulation spring = mSpring;
+        if (mLastFrameTimeNanos == UNSET_TIME) {
+            mLastFrameTimeNanos = frameTimeNanos;
+        }
+        spring.step((frameTimeNanos - mLastFrameTimeNanos) / 1000000000f);
+        mLastFrameTimeNanos = Math.max(mLastFrameTimeNanos, frameTimeNanos);
+        if (spring.isAtRest()) {
+            mRunning = false;
+            unscheduleFrame();
+            mCurrX = mFinalX;
+            mCallback.onAnimationStep(mCurrX);
+            mCallback.onAnimationEnd(mCurrX);
+            return;
+        }
+        mCurrX = Math.round(spring.getPosition());
+        mCallback.onAnimationStep(mCurrX);
+    }
+    
+    /**
+     * Keep receiving the frames until unscheduleFrame().
+     */
+    private void scheduleFrame() {
+        DrawerFrameTicker.getInstance().add(mTickerClient);
+    }
+    
+    private void unscheduleFrame() {
+        DrawerFrameTicker.getInstance().remove(mTickerClient);
+    }
+    
+    private class TickerClient implements DrawerFrameTicker.Client {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            DrawerAnimator.this.doFrame(frameTimeNanos);
+        }
+    }
+}
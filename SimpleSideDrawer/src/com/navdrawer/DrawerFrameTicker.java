@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * <p>Advance all the moving drawers of the process from one frame callback.</p>
+ * <p>Every drawer animation and metrics recorder registers a Client while it runs and removes
+ * it when it stops. The ticker posts a single Choreographer callback per frame while any Client
+ * is registered, so that all the drawers move in the same animation pass before one traversal,
+ * and it posts nothing at all while no drawer is moving.</p>
+ * <p>Choreographer is used on Android 4.1 or later, otherwise a Handler emulates the frames.
+ * Use this class only on the main thread. Nothing is allocated per frame.</p>
+ * @author Masahiko Adachi
+ */
+final class DrawerFrameTicker {
+    private static final boolean CHOREOGRAPHER_SUPPORTED = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    private static final long FALLBACK_FRAME_DELAY = 10;//msec
+    
+    private static DrawerFrameTicker sInstance;
+    
+    interface Client {
+        /**
+         * Called once per frame while registered.
+         * The Client may add or remove itself and other Clients from here.
+         */
+        void doFrame(long frameTimeNanos);
+    }
+    
+    private final Object mFrameCallback;//Choreographer.FrameCallback, kept as Object for older platforms
+    private final Handler mHandler;
+    private final Runnable mFallbackFrame;
+    private Client[] mClients = new Client[4];
+    private int mCount;
+    private boolean mScheduled;
+    private boolean mDispatching;
+    
+    static DrawerFrameTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new DrawerFrameTicker();
+        }
+        return sInstance;
+    }
+    
+    private DrawerFrameTicker() {
+        if (CHOREOGRAPHER_SUPPORTED) {
+            mFrameCallback = new FrameCallback();
+            mHandler = null;
+            mFallbackFrame = null;
+        } else {
+            mFrameCallback = null;
+            mHandler = new Handler(Looper.getMainLooper());
+            mFallbackFrame = new FallbackFrame();
+        }
+    }
+    
+    /**
+     * Call the client from the next frame on. Nothing happens if it is already registered.
+     */
+    void add(Client client) {
+        for (int i = 0; i < mCount; i++) {
+            if (mClients[i] == client) return;
+        }
+        if (mCount == mClients.length) {
+            final Client[] clients = new Client[mCount * 2];
+            System.arraycopy(mClients, 0, clients, 0, mCount);
+            mClients = clients;
+        }
+        mClients[mCount++] = client;
+        scheduleFrame();
+    }
+    
+    /**
+     * Stop calling the client. The ticker becomes dormant when the last client is removed.
+     */
+    void remove(Client client) {
+        for (int i = 0; i < mCount; i++) {
+            if (mClients[i] != client) continue;
+            mClients[i] = null;
+            if (!mDispatching) {
+                compact();
+                if (mCount == 0) {
+                    unscheduleFrame();
+                }
+            }
+            return;
+        }
+    }
+    
+    private void compact() {
+        int count = 0;
+        for (int i = 0; i < mCount; i++) {
+            final Client client = mClients[i];
+            if (client != null) {
+                mClients[count++] = client;
+            }
+        }
+        for (int i = count; i < mCount; i++) {
+            mClients[i] = null;
+        }
+        mCount = count;
+    }
+    
+    private void doFrame(long frameTimeNanos) {
+        mScheduled = false;
+        mDispatching = true;
+        //the clients added in this frame start from the next one
+        final int count = mCount;
+        for (int i = 0; i < count; i++) {
+            final Client client = mClients[i];
+            if (client != null) {
+                client.doFrame(frameTimeNanos);
+            }
+        }
+        mDispatching = false;
+        compact();
+        if (mCount != 0) {
+            scheduleFrame();
+        }
+    }
+    
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void scheduleFrame() {
+        if (mScheduled || mDispatching) return;//rescheduled at the end of the dispatch
+        mScheduled = true;
+        if (mFrameCallback != null) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+        } else {
+            mHandler.postDelayed(mFallbackFrame, FALLBACK_FRAME_DELAY);
+        }
+    }
+    
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void unscheduleFrame() {
+        if (!mScheduled) return;
+        mScheduled = false;
+        if (mFrameCallback != null) {
+            Choreographer.getInstance().removeFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+        } else {
+            mHandler.removeCallbacks(mFallbackFrame);
+        }
+    }
+    
+    private class FallbackFrame implements Runnable {
+        @Override
+        public void run() {
+            doFrame(System.nanoTime());
+        }
+    }
+    
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class FrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            DrawerFrameTicker.this.doFrame(frameTimeNanos);
+        }
+    }
+}
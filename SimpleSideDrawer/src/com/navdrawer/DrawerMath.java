@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>The position math of the drag and the tween animation.</p>
+ * <p>Like SettleTimeCalculator and SpringSimulation, this class has no Android dependency,
+ * so that the per-event code can be checked and benchmarked off-device.</p>
+ * <p>An offset is the horizontal offset of the above view:
+ * negative while the left side is shown, positive while the right side is shown.</p>
+ * @author Masahiko Adachi
+ */
+final class DrawerMath {
+    private DrawerMath() {
+    }
+    
+    /**
+     * Keep the offset between the closed position and the opened position.
+     * @param x The offset to clamp
+     * @param openedX The offset when the side is opened
+     */
+    static int clampOffset(int x, int openedX) {
+        if (openedX < 0) {
+            return x < openedX ? openedX : (0 < x ? 0 : x);
+        }
+        return x < 0 ? 0 : (openedX < x ? openedX : x);
+    }
+    
+    /**
+     * Compute the offset after a drag move. The above view follows the finger.
+     * @param currentX The current offset
+     * @param lastMotionX The previous finger position
+     * @param newMotionX The new finger position
+     * @param openedX The offset when the dragged side is opened
+     * @return The new offset, clamped between the closed and the opened position
+     */
+    static int dragOffset(int currentX, float lastMotionX, float newMotionX, int openedX) {
+        final float diffX = -(newMotionX - lastMotionX);
+        final float nextX = currentX + diffX;
+        final int minX = openedX < 0 ? openedX : 0;
+        final int maxX = openedX < 0 ? 0 : openedX;
+        if (nextX < minX) {
+            return minX;
+        } else if (maxX < nextX) {
+            return maxX;
+        }
+        return currentX + (int) diffX;
+    }
+    
+    /**
+     * Compute the finger position which the offset after a drag move corresponds to.
+     * The fraction of a pixel which dragOffset() did not apply is kept for the next move,
+     * so that slow drags do not fall behind the finger.
+     * @param currentX The offset before the move
+     * @param nextX The offset returned by dragOffset()
+     * @return The finger position to pass to the next dragOffset() as lastMotionX
+     */
+    static float consumedMotionX(int currentX, int nextX, float lastMotionX, float newMotionX) {
+        final float diffX = -(newMotionX - lastMotionX);
+        if (nextX != currentX + (int) diffX) {
+            return newMotionX;//clamped, the rest of the move is dropped
+        }
+        return lastMotionX - (nextX - currentX);
+    }
+    
+    /**
+     * @param left true if the left side is dragged
+     * @return true if the finger moved towards the opened position
+     */
+    static boolean isOpeningMove(boolean left, float lastMotionX, float newMotionX) {
+        return left ? lastMotionX < newMotionX : newMotionX < lastMotionX;
+    }
+    
+    /**
+     * @return The linear progress of a tween, from 0 to 1
+     */
+    static float tweenFraction(long elapsedNanos, long durationNanos) {
+        if (elapsedNanos <= 0 || durationNanos <= 0) {
+            return elapsedNanos <= 0 ? 0f : 1f;
+        }
+        if (durationNanos <= elapsedNanos) {
+            return 1f;
+        }
+        return (float) elapsedNanos / durationNanos;
+    }
+    
+    /**
+     * @param interpolated The interpolated progress, which may overshoot 0 to 1
+     * @return The offset of a tween at the interpolated progress
+     */
+    static int tweenPosition(int startX, int finalX, float interpolated) {
+        return startX + Math.round((finalX - startX) * interpolated);
+    }
+}
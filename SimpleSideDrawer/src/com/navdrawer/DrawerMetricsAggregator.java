@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>Keep the metrics of the latest drawer animations in a fixed size ring buffer.</p>
+ * <p>Set it to SimpleSideDrawer.setOnAnimationMetricsListener() and read it from your telemetry.
+ * Nothing is allocated after the construction, and the getters can be called from any thread.</p>
+ * @author Masahiko Adachi
+ */
+public class DrawerMetricsAggregator implements SimpleSideDrawer.OnAnimationMetricsListener {
+    private final int[] mFrameCounts;
+    private final int[] mDroppedFrameCounts;
+    private final long[] mFirstFrameLatencies;
+    private final long[] mSettleDurations;
+    private final boolean[] mOpenings;
+    private int mNext;
+    private int mSize;
+    private long mTotalCount;
+    
+    /**
+     * @param capacity The number of animations to keep
+     */
+    public DrawerMetricsAggregator(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        mFrameCounts = new int[capacity];
+        mDroppedFrameCounts = new int[capacity];
+        mFirstFrameLatencies = new long[capacity];
+        mSettleDurations = new long[capacity];
+        mOpenings = new boolean[capacity];
+    }
+    
+    @Override
+    public synchronized void onAnimationMetrics(DrawerAnimationMetrics metrics) {
+        final int i = mNext;
+        mFrameCounts[i] = metrics.getFrameCount();
+        mDroppedFrameCounts[i] = metrics.getDroppedFrameCount();
+        mFirstFrameLatencies[i] = metrics.getFirstFrameLatencyNanos();
+        mSettleDurations[i] = metrics.getSettleDurationNanos();
+        mOpenings[i] = metrics.isOpening();
+        mNext = (i + 1) % mFrameCounts.length;
+        if (mSize < mFrameCounts.length) {
+            mSize++;
+        }
+        mTotalCount++;
+    }
+    
+    /**
+     * @return The number of animations kept in the buffer
+     */
+    public synchronized int size() {
+        return mSize;
+    }
+    
+    /**
+     * @return The number of animations recorded since the creation or the last clear()
+     */
+    public synchronized long getTotalCount() {
+        return mTotalCount;
+    }
+    
+    /**
+     * @param index 0 is the oldest animation in the buffer
+     */
+    public synchronized int getFrameCount(int index) {
+        return mFrameCounts[position(index)];
+    }
+    
+    /**
+     * @param index 0 is the oldest animation in the buffer
+     */
+    public synchronized int getDroppedFrameCount(int index) {
+        return mDroppedFrameCounts[position(index)];
+    }
+    
+    /**
+     * @param index 0 is the oldest animation in the buffer
+     */
+    public synchronized long getFirstFrameLatencyNanos(int index) {
+        return mFirstFrameLatencies[position(index)];
+    }
+    
+    /**
+     * @param index 0 is the oldest animation in the buffer
+     */
+    public synchronized long getSettleDurationNanos(int index) {
+        return mSettleDurations[position(index)];
+    }
+    
+    /**
+     * @param index 0 is the oldest animation in the buffer
+     */
+    public synchronized boolean isOpening(int index) {
+        return mOpenings[position(index)];
+    }
+    
+    /**
+     * @return The ratio of dropped frames to expected frames over the buffer, from 0 to 1
+     */
+    public synchronized float getDroppedFrameRatio() {
+        long frames = 0;
+        long dropped = 0;
+        for (int i = 0; i < mSize; i++) {
+            frames += mFrameCounts[i];
+            dropped += mDroppedFrameCounts[i];
+        }
+        final long expected = frames + dropped;
+        return expected == 0 ? 0f : (float) dropped / expected;
+    }
+    
+    /**
+     * @return The average time from the request to the first frame over the buffer, in nano seconds
+     */
+    public synchronized long getAverageFirstFrameLatencyNanos() {
+        return average(mFirstFrameLatencies);
+    }
+    
+    /**
+     * @return The average settle duration over the buffer, in nano seconds
+     */
+    public synchronized long getAverageSettleDurationNanos() {
+        return average(mSettleDurations);
+    }
+    
+    /**
+     * Forget all the recorded animations
+     */
+    public synchronized void clear() {
+        mNext = 0;
+        mSize = 0;
+        mTotalCount = 0;
+    }
+    
+    private long average(long[] values) {
+        if (mSize == 0) return 0;
+        long sum = 0;
+        for (int i = 0; i < mSize; i++) {
+            sum += values[i];
+        }
+        return sum / mSize;
+    }
+    
+    private int position(int index) {
+        if (index < 0 || mSize <= index) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+        }
+        return (mNext - mSize + index + mFrameCounts.length) % mFrameCounts.length;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>Count the work the drawer does, to catch a regression of a recorded gesture.</p>
+ * <p>Set it to SimpleSideDrawer.setWorkCounters(), replay a GestureTrace with GestureTracePlayer,
+ * and compare the counts with the ones of a known good build.
+ * The above view position is recorded once per frame which moved it, up to the capacity.</p>
+ * <p>Use this class only on the main thread. Nothing is allocated after the construction.</p>
+ * @author Masahiko Adachi
+ */
+public class DrawerWorkCounters {
+    private final int[] mPositions;
+    private int mFrameCount;
+    private int mMeasureCount;
+    private int mLayoutCount;
+    private int mInvalidateCount;
+    
+    /**
+     * @param capacity The number of the frame positions to keep
+     */
+    public DrawerWorkCounters(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        mPositions = new int[capacity];
+    }
+    
+    public void reset() {
+        mFrameCount = 0;
+        mMeasureCount = 0;
+        mLayoutCount = 0;
+        mInvalidateCount = 0;
+    }
+    
+    /**
+     * @return The number of the frames which moved the above view
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+    
+    /**
+     * @param frame The frame index, less than getFrameCount() and the capacity
+     * @return The above view offset in the frame. Negative while the left side is shown.
+     */
+    public int getPosition(int frame) {
+        if (frame < 0 || Math.min(mFrameCount, mPositions.length) <= frame) {
+            throw new IndexOutOfBoundsException("frame: " + frame);
+        }
+        return mPositions[frame];
+    }
+    
+    /**
+     * @return The number of the measure passes of the drawer
+     */
+    public int getMeasureCount() {
+        return mMeasureCount;
+    }
+    
+    /**
+     * @return The number of the layout passes of the drawer
+     */
+    public int getLayoutCount() {
+        return mLayoutCount;
+    }
+    
+    /**
+     * @return The number of the invalidations which reached the drawer from its descendants
+     */
+    public int getInvalidateCount() {
+        return mInvalidateCount;
+    }
+    
+    void onFrame(int position) {
+        if (mFrameCount < mPositions.length) {
+            mPositions[mFrameCount] = position;
+        }
+        mFrameCount++;
+    }
+    
+    void onMeasure() {
+        mMeasureCount++;
+    }
+    
+    void onLayout() {
+        mLayoutCount++;
+    }
+    
+    void onInvalidate() {
+        mInvalidateCount++;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p>A recorded stream of touch events, in a compact binary form.</p>
+ * <p>Each event keeps its action and its samples, the batched historical samples first.
+ * The sample times are in msec from the first event of the trace.
+ * Record it with GestureTraceRecorder and replay it with GestureTracePlayer.</p>
+ * <p>This class has no Android dependency, so that a trace attached to a bug report
+ * can be read and checked off-device.</p>
+ * @author Masahiko Adachi
+ */
+public final class GestureTrace {
+    private static final int MAGIC = 0x53534454;//"SSDT"
+    private static final int VERSION = 1;
+    
+    private int mEventCount;
+    private byte[] mActions = new byte[16];
+    private int[] mFirstSamples = new int[17];//the sample index of each event, and the end
+    private int mSampleCount;
+    private int[] mTimes = new int[64];
+    private float[] mXs = new float[64];
+    private float[] mYs = new float[64];
+    
+    /**
+     * @return The number of the events
+     */
+    public int getEventCount() {
+        return mEventCount;
+    }
+    
+    /**
+     * @return The masked action of the event, e.g. MotionEvent.ACTION_MOVE
+     */
+    public int getAction(int event) {
+        return mActions[event];
+    }
+    
+    /**
+     * @return The number of the samples of the event, 1 + the history size
+     */
+    public int getSampleCount(int event) {
+        return mFirstSamples[event + 1] - mFirstSamples[event];
+    }
+    
+    /**
+     * @return The time of the sample in msec from the first event
+     */
+    public int getSampleTime(int event, int sample) {
+        return mTimes[mFirstSamples[event] + sample];
+    }
+    
+    public float getX(int event, int sample) {
+        return mXs[mFirstSamples[event] + sample];
+    }
+    
+    public float getY(int event, int sample) {
+        return mYs[mFirstSamples[event] + sample];
+    }
+    
+    /**
+     * @return The time of the last sample in msec from the first event
+     */
+    public int getDuration() {
+        return mSampleCount == 0 ? 0 : mTimes[mSampleCount - 1];
+    }
+    
+    void clear() {
+        mEventCount = 0;
+        mSampleCount = 0;
+        mFirstSamples[0] = 0;
+    }
+    
+    /**
+     * Start an event. Add its samples with addSample() before starting the next one.
+     */
+    void addEvent(int action) {
+        if (mEventCount == mActions.length) {
+            final int capacity = mActions.length * 2;
+            mActions = copyOf(mActions, capacity);
+            mFirstSamples = copyOf(mFirstSamples, capacity + 1);
+        }
+        mActions[mEventCount] = (byte) action;
+        mEventCount++;
+        mFirstSamples[mEventCount] = mSampleCount;
+    }
+    
+    void addSample(int time, float x, float y) {
+        if (mSampleCount == mTimes.length) {
+            final int capacity = mTimes.length * 2;
+            mTimes = copyOf(mTimes, capacity);
+            mXs = copyOf(mXs, capacity);
+            mYs = copyOf(mYs, capacity);
+        }
+        mTimes[mSampleCount] = time;
+        mXs[mSampleCount] = x;
+        mYs[mSampleCount] = y;
+        mSampleCount++;
+        mFirstSamples[mEventCount] = mSampleCount;
+    }
+    
+    /**
+     * Write the trace. The stream is not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeInt(mEventCount);
+        for (int event = 0; event < mEventCount; event++) {
+            final int samples = getSampleCount(event);
+            data.writeByte(mActions[event]);
+            data.writeShort(samples);
+            for (int i = mFirstSamples[event], end = i + samples; i < end; i++) {
+                data.writeInt(mTimes[i]);
+                data.writeFloat(mXs[i]);
+                data.writeFloat(mYs[i]);
+            }
+        }
+        data.flush();
+    }
+    
+    /**
+     * Read a trace written by writeTo(). The stream is not closed.
+     * @throws IOException If the stream is not a trace of this version
+     */
+    public static GestureTrace readFrom(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a gesture trace");
+        }
+        final int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported gesture trace version: " + version);
+        }
+        final GestureTrace trace = new GestureTrace();
+        final int events = data.readInt();
+        for (int event = 0; event < events; event++) {
+            trace.addEvent(data.readByte());
+            final int samples = data.readUnsignedShort();
+            for (int i = 0; i < samples; i++) {
+                trace.addSample(data.readInt(), data.readFloat(), data.readFloat());
+            }
+        }
+        return trace;
+    }
+    
+    private static byte[] copyOf(byte[] src, int length) {
+        final byte[] dst = new byte[length];
+        System.arraycopy(src, 0, dst, 0, Math.min(src.length, length));
+        return dst;
+    }
+    
+    private static int[] copyOf(int[] src, int length) {
+        final int[] dst = new int[length];
+        System.arraycopy(src, 0, dst, 0, Math.min(src.length, length));
+        return dst;
+    }
+    
+    private static float[] copyOf(float[] src, int length) {
+        final float[] dst = new float[length];
+        System.arraycopy(src, 0, dst, 0, Math.min(src.length, length));
+        return dst;
+    }
+}
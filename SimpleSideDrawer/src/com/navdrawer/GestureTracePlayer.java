@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * <p>Replay a GestureTrace on a view, e.g. the drawer, to reproduce a recorded gesture.</p>
+ * <p>replay() dispatches all the events at once with their recorded times shifted to now,
+ * which is what a test with a controlled clock needs. replayInRealTime() dispatches each event
+ * at its recorded time on the main thread, to reproduce the jank on a device.
+ * Combine it with DrawerWorkCounters to check the work per gesture.</p>
+ * @author Masahiko Adachi
+ */
+public class GestureTracePlayer {
+    private final GestureTrace mTrace;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    
+    public GestureTracePlayer(GestureTrace trace) {
+        mTrace = trace;
+    }
+    
+    /**
+     * Dispatch all the events now.
+     * @param target The view to dispatch the events to
+     */
+    public void replay(View target) {
+        final long downTime = SystemClock.uptimeMillis();
+        for (int event = 0; event < mTrace.getEventCount(); event++) {
+            dispatch(target, event, downTime);
+        }
+    }
+    
+    /**
+     * Dispatch each event at its recorded time from now. Call it on the main thread.
+     * @param target The view to dispatch the events to
+     */
+    public void replayInRealTime(final View target) {
+        final long downTime = SystemClock.uptimeMillis();
+        for (int event = 0; event < mTrace.getEventCount(); event++) {
+            final int index = event;
+            final int last = mTrace.getSampleCount(event) - 1;
+            mHandler.postAtTime(new Runnable() {
+                @Override
+                public void run() {
+                    dispatch(target, index, downTime);
+                }
+            }, downTime + mTrace.getSampleTime(event, last));
+        }
+    }
+    
+    /**
+     * Stop replayInRealTime().
+     */
+    public void cancel() {
+        mHandler.removeCallbacksAndMessages(null);
+    }
+    
+    private void dispatch(View target, int event, long downTime) {
+        final GestureTrace trace = mTrace;
+        final int samples = trace.getSampleCount(event);
+        if (samples == 0) return;
+        //the historical samples first, then the sample of the event itself
+        final MotionEvent ev = MotionEvent.obtain(downTime, downTime + trace.getSampleTime(event, 0),
+                trace.getAction(event), trace.getX(event, 0), trace.getY(event, 0), 0);
+        for (int i = 1; i < samples; i++) {
+            ev.addBatch(downTime + trace.getSampleTime(event, i), trace.getX(event, i), trace.getY(event, i), 1f, 1f, 0);
+        }
+        target.dispatchTouchEvent(ev);
+        ev.recycle();
+    }
+}
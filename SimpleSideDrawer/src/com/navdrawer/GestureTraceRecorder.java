@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import android.view.MotionEvent;
+
+/**
+ * <p>Record the touch events which the drawer receives into a GestureTrace.</p>
+ * <p>Set it to SimpleSideDrawer.setGestureTraceRecorder(), call start(), reproduce the gesture,
+ * and write getTrace() to a file with GestureTrace.writeTo().</p>
+ * @author Masahiko Adachi
+ */
+public class GestureTraceRecorder {
+    private final GestureTrace mTrace = new GestureTrace();
+    private boolean mRecording;
+    private long mStartTime;
+    
+    /**
+     * Drop the recorded events and start recording.
+     * The first recorded event should be a ACTION_DOWN.
+     */
+    public void start() {
+        mTrace.clear();
+        mStartTime = -1;
+        mRecording = true;
+    }
+    
+    public void stop() {
+        mRecording = false;
+    }
+    
+    public boolean isRecording() {
+        return mRecording;
+    }
+    
+    /**
+     * @return The recorded trace. It keeps growing while recording.
+     */
+    public GestureTrace getTrace() {
+        return mTrace;
+    }
+    
+    /**
+     * Called by the drawer for every event it receives.
+     */
+    void record(MotionEvent ev) {
+        if (!mRecording) return;
+        if (mStartTime < 0) {
+            mStartTime = ev.getEventTime();
+        }
+        mTrace.addEvent(ev.getAction() & MotionEvent.ACTION_MASK);
+        final int historySize = ev.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            mTrace.addSample((int) (ev.getHistoricalEventTime(i) - mStartTime), ev.getHistoricalX(i), ev.getHistoricalY(i));
+        }
+        mTrace.addSample((int) (ev.getEventTime() - mStartTime), ev.getX(), ev.getY());
+    }
+}
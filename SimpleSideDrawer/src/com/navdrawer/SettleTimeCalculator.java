@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>Decides where and how fast the drawer settles after the finger is released.</p>
+ * <p>This class has no Android dependency so that it can be checked off-device.</p>
+ * @author Masahiko Adachi
+ */
+final class SettleTimeCalculator {
+    /**
+     * The default drawer interpolator starts at about twice its average speed.
+     * Doubling the time needed at the release velocity keeps the panel moving with the finger.
+     */
+    static final float VELOCITY_DURATION_FACTOR = 2f;
+    
+    private SettleTimeCalculator() {
+    }
+    
+    /**
+     * Decide whether the drawer should settle opened.
+     * @param openingVelocity The release velocity in pixels/sec. Positive means towards the opened position.
+     * @param minFlingVelocity The velocity in pixels/sec from which the release is treated as a fling.
+     * @param lastMoveOpening The direction of the last move sample, used when the release is not a fling.
+     * @return true if the drawer should be opened
+     */
+    static boolean shouldOpen(float openingVelocity, float minFlingVelocity, boolean lastMoveOpening) {
+        if (Math.abs(openingVelocity) >= minFlingVelocity) {
+            return openingVelocity > 0;
+        }
+        return lastMoveOpening;
+    }
+    
+    /**
+     * Compute the settle duration.
+     * @param distance The remaining distance in pixels. The sign is ignored.
+     * @param range The full travel of the drawer in pixels.
+     * @param velocity The release velocity towards the target in pixels/sec.
+     *                 Zero or negative means that the finger is not moving towards the target.
+     * @param minFlingVelocity The velocity in pixels/sec from which the release is treated as a fling.
+     * @param maxDuration The duration in msec of a settle over the full range.
+     * @return The duration in msec, between 0 and maxDuration
+     */
+    static int computeDuration(int distance, int range, float velocity, float minFlingVelocity, int maxDuration) {
+        distance = Math.abs(distance);
+        if (distance == 0 || maxDuration <= 0) {
+            return 0;
+        }
+        int duration = maxDuration;
+        if (range > 0 && distance < range) {
+            duration = (int) ((long) maxDuration * distance / range);
+        }
+        if (velocity >= minFlingVelocity && velocity > 0) {
+            int flingDuration = Math.round(VELOCITY_DURATION_FACTOR * 1000f * distance / velocity);
+            if (flingDuration < duration) {
+                duration = flingDuration;
+            }
+        }
+        return duration;
+    }
+}
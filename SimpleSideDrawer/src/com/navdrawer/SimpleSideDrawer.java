@@ -16,27 +16,44 @@
 
 package com.navdrawer;
 
+import android.annotation.TargetApi;
 import android.app.Activity;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.XmlResourceParser;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable.Orientation;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
+import android.util.SparseArray;
 import android.util.Xml;
-import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
+import android.view.SurfaceView;
+import android.view.TextureView;
+import android.view.VelocityTracker;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.view.ViewGroup.LayoutParams;
+import android.view.ViewParent;
 import android.view.Window;
+import android.view.WindowInsets;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
-import android.widget.Scroller;
 
 /**
  * <p>This class enables to add a NavDrawer simply.</p>
@@ -57,131 +74,374 @@ import android.widget.Scroller;
  * @author Masahiko Adachi
   */
 public class SimpleSideDrawer extends FrameLayout {
+    /**
+     * Slide the above view by scrolling its content. Every frame of the slide redraws the whole content.
+     */
+    public static final int RENDER_MODE_SCROLL = 0;
+    /**
+     * Slide the above view with a translation on a hardware layer. Only available on Android 3.0 or later.
+     */
+    public static final int RENDER_MODE_LAYER = 1;
+    /**
+     * Slide with the interpolator and the animation duration.
+     */
+    public static final int ANIMATION_MODE_TWEEN = 0;
+    /**
+     * Slide with a damped spring, which keeps the velocity of a released drag or of a retargeted animation.
+     */
+    public static final int ANIMATION_MODE_SPRING = 1;
+    
+    /**
+     * Both sides are closed and the above view is at rest.
+     */
+    public static final int STATE_CLOSED = 0;
+    /**
+     * The above view follows the finger.
+     */
+    public static final int STATE_DRAGGING = 1;
+    /**
+     * The above view is sliding to the opened position.
+     */
+    public static final int STATE_OPENING = 2;
+    /**
+     * A side is opened and the above view is at rest.
+     */
+    public static final int STATE_OPEN = 3;
+    /**
+     * The above view is sliding to the closed position.
+     */
+    public static final int STATE_CLOSING = 4;
+    /**
+     * No side is shown. Only with STATE_CLOSED.
+     */
+    public static final int SIDE_NONE = 0;
+    public static final int SIDE_LEFT = 1;
+    public static final int SIDE_RIGHT = 2;
+    
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final float TAP_RANGE = 3;
+    private static final String STATE_OPENED_SIDE = "com.navdrawer.SimpleSideDrawer.openedSide";
+    private static final String STATE_LEFT_HIERARCHY = "com.navdrawer.SimpleSideDrawer.leftHierarchy";
+    private static final String STATE_RIGHT_HIERARCHY = "com.navdrawer.SimpleSideDrawer.rightHierarchy";
+    private static final int EDGE_NONE = 0;
+    private static final int EDGE_LEFT = 1;
+    private static final int EDGE_RIGHT = 2;
+    private static final int DEFAULT_EDGE_WIDTH_DIP = 20;
+    
     private final Window mWindow;
-    private final ViewGroup mAboveView;
-    private final BehindLinearLayout mBehindView;
-    private final LinearLayout mLeftBehindBase;
-    private final LinearLayout mRightBehindBase;
-    private final View mOverlay;
+    private final AboveFrameLayout mAboveView;
+    private Drawable mBehindBackground;
+    private int mBehindInsetLeft;
+    private int mBehindInsetTop;
+    private final BehindBaseLayout mLeftBehindBase;
+    private final BehindBaseLayout mRightBehindBase;
     
-    private Scroller mScroller;
+    private final DrawerAnimator mAnimator;
+    private final SpringSimulation mSpring = new SpringSimulation();
+    private int mAnimationMode = ANIMATION_MODE_TWEEN;
     private View mLeftBehindView;//menu of left-behind will be set
     private View mRightBehindView;//menu of right-behind will be set
+    private int mLeftBehindLayout;//layout id of left-behind, which is not inflated yet
+    private int mRightBehindLayout;//layout id of right-behind, which is not inflated yet
+    private OnBehindInflateListener mOnBehindInflateListener;
+    private PreInflater mPreInflater;
+    private final AnimationMetricsRecorder mMetricsRecorder;
     private Rect mLeftPaddingRect;
     private Rect mRightPaddingRect;
     private int mDurationLeft;
     private int mDurationRight;
     private int mLeftBehindViewWidth;
     private int mRightBehindViewWidth;
+    private final VelocityTracker mVelocityTracker;
+    private final int mMinimumFlingVelocity;
+    private final int mMaximumFlingVelocity;
+    private final int mTouchSlop;
+    private boolean mEdgeSwipeEnabled = false;
+    private int mEdgeWidth;
+    private int mEdgeSide = EDGE_NONE;
+    private float mEdgeDownX;
+    private float mEdgeDownY;
+    private boolean mBehindSnapshotEnabled = false;
+    private boolean mFreezeContentEnabled = false;
+    private boolean mOverdrawDebugEnabled = false;
+    private Paint mOverdrawPaint;
+    private long mDrawerOverdrawPixels;
+    private boolean mAssembled = false;
+    private int mState = STATE_CLOSED;
+    private int mStateSide = SIDE_NONE;
+    private OnDrawerStateChangeListener mOnDrawerStateChangeListener;
+    private OnDrawerSlideListener mOnDrawerSlideListener;
+    private final Runnable mDispatchSlide = new DispatchSlide();
+    private boolean mSlideDispatchPending = false;
+    private int mLastSlideSide = SIDE_NONE;
+    private int mLastSlideOffset = 0;
+    private boolean mTouchPredictionEnabled = false;
+    private GestureTraceRecorder mGestureTraceRecorder;
+    private float mTapDownX;
+    private float mTapDownY;
+    private boolean mTapOnAbove = false;
+    private int mPendingOpenedSide = SIDE_NONE;
+    private ScrimView mScrim;
+    private boolean mSlideEffectsEnabled = false;
+    private SparseArray<Parcelable> mLeftPendingHierarchy;
+    private SparseArray<Parcelable> mRightPendingHierarchy;
+    private DrawerWorkCounters mWorkCounters;
+    private final long mFrameIntervalNanos;
+    private BehindViewPool mBehindViewPool;
+    private int mLeftPooledLayout;
+    private int mRightPooledLayout;
+    private Configuration mLeftPooledConfiguration;//the configuration which the menu was inflated under
+    private Configuration mRightPooledConfiguration;
+    private Assembler mAssembler;
+    private OnContentFreezeListener mOnContentFreezeListener;
+    private final Runnable mFreezeContent = new FreezeContent();
+    private int mRenderMode = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB ? RENDER_MODE_LAYER : RENDER_MODE_SCROLL;
+    
+    /**
+     * Interface definition for a callback to be invoked when a behind view,
+     * registered by setLeftBehindContentViewLazily() or setRightBehindContentViewLazily(), is inflated.
+     */
+    public interface OnBehindInflateListener {
+        /**
+         * Called when the left behind view is inflated
+         * @param view The view which was created from the registered layout id
+         */
+        public void onLeftBehindInflated(View view);
+        
+        /**
+         * Called when the right behind view is inflated
+         * @param view The view which was created from the registered layout id
+         */
+        public void onRightBehindInflated(View view);
+    }
     
-    private abstract class DragAction {
+    /**
+     * Interface definition for a callback to be invoked when a drawer animation finished.
+     * @see SimpleSideDrawer#setOnAnimationMetricsListener(OnAnimationMetricsListener)
+     * @see DrawerMetricsAggregator
+     */
+    public interface OnAnimationMetricsListener {
+        /**
+         * Called on the main thread when an animation reached its end or was interrupted by another one.
+         * @param metrics The metrics of the animation. The object is reused for the next animation.
+         */
+        public void onAnimationMetrics(DrawerAnimationMetrics metrics);
+    }
+    
+    /**
+     * Interface definition for a callback to be invoked when the above content is frozen or thawed.
+     * @see SimpleSideDrawer#setFreezeContentWhenOpened(boolean)
+     */
+    public interface OnContentFreezeListener {
+        /**
+         * Called when the content was replaced by a snapshot. Pause your animations, videos or updates here.
+         */
+        public void onContentFrozen();
+        
+        /**
+         * Called when the live content is shown again, before the first frame of closing.
+         */
+        public void onContentThawed();
+    }
+    
+    /**
+     * Interface definition for a callback to be invoked when the drawer state changes.
+     */
+    public interface OnDrawerStateChangeListener {
+        /**
+         * @param state One of STATE_CLOSED, STATE_DRAGGING, STATE_OPENING, STATE_OPEN and STATE_CLOSING
+         * @param side SIDE_LEFT or SIDE_RIGHT, SIDE_NONE when the state is STATE_CLOSED
+         */
+        public void onDrawerStateChanged(int state, int side);
+    }
+    
+    /**
+     * Interface definition for a callback to be invoked when the above view has moved.
+     * It is called at most once per frame, in the frame which moved the above view.
+     */
+    public interface OnDrawerSlideListener {
+        /**
+         * @param side SIDE_LEFT or SIDE_RIGHT
+         * @param slideOffset How much the side is opened, from 0 ( closed ) to 1 ( opened )
+         */
+        public void onDrawerSlide(int side, float slideOffset);
+    }
+    
+    /**
+     * Drag the above view while a side is opened.
+     * One instance per side, so that nothing is allocated while dragging.
+     */
+    private class DragAction {
+        private final boolean mLeft;
+        private final TouchPredictor mPredictor = new TouchPredictor();
+        private final Runnable mPredictedFrame = new PredictedFrame();
         private float mLastMotionX = 0f;
+        private float mLastSampleX = 0f;
         private boolean mOpening = false;
         private boolean mDraggable = false;
-        abstract public boolean onTouchEvent(MotionEvent event); 
-    }
-
-    private DragAction mLeftDragAction = new DragAction() {
-        @Override
+        private boolean mFramePending = false;
+        
+        DragAction(boolean left) {
+            mLeft = left;
+        }
+        
+        /**
+         * @return The above view offset when this side is opened
+         */
+        private int getOpenedX() {
+            return mLeft ? -mLeftBehindViewWidth : mRightBehindViewWidth;
+        }
+        
         public boolean onTouchEvent(MotionEvent ev) {
             int action = ev.getAction() & MotionEvent.ACTION_MASK;
+            trackVelocity(ev, action);
             switch (action) {
             case MotionEvent.ACTION_DOWN:
             {
                 float x = ev.getX();
-                mLeftDragAction.mLastMotionX = x;
-                mLeftDragAction.mDraggable = mAboveView.getScrollX() != 0;
+                mLastMotionX = x;
+                mLastSampleX = x;
+                mPredictor.reset();
+                mPredictor.addSample(ev.getEventTime() * NANOS_PER_MILLI, x);
+                mDraggable = getAboveOffset() != 0;
+                if (mDraggable) {
+                    cancelAboveAnimation();
+                    setMoving(true);
+                    setDrawerState(STATE_DRAGGING, side());
+                }
                 break;
             }
             case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
             {
-                if (mLeftDragAction.mDraggable) {
-                    int currentX = mAboveView.getScrollX();
-                    int diffX = 0;
-                    if (mLeftDragAction.mOpening) {
-                        diffX = -(mLeftBehindViewWidth + currentX);
+                if (mDraggable) {
+                    //settle from where the finger really is, not from the prediction
+                    cancelPredictedFrame();
+                    setAboveOffset(dragTo(getAboveOffset(), mPredictor.getLastPosition()));
+                    mVelocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+                    float velocity = mVelocityTracker.getXVelocity();
+                    //release first, a settle which has nowhere to go ends in settle()
+                    mDraggable = false;
+                    if (mLeft) {
+                        settle(getOpenedX(), velocity, mDurationLeft);
                     } else {
-                        diffX = -currentX;
+                        settle(getOpenedX(), -velocity, mDurationRight);
                     }
-                    mScroller.startScroll(currentX, 0, diffX, 0, mDurationLeft);
-                    invalidate();
                 }
                 break;
             }
             case MotionEvent.ACTION_MOVE:
-                if (!mLeftDragAction.mDraggable) return false;
-            
-                float newX = ev.getX();
-                float diffX = -(newX - mLeftDragAction.mLastMotionX);
-                int x = mAboveView.getScrollX();
-                mLeftDragAction.mOpening = mLeftDragAction.mLastMotionX < newX;
-                mLeftDragAction.mLastMotionX = newX;
-                float nextX = x + diffX;
-                if (0 < nextX) {
-                    mAboveView.scrollTo(0, 0);
+                if (!mDraggable) return false;
+                
+                //a move batches all the samples since the last one, the oldest first
+                final boolean predict = isTouchPredictionActive();
+                int x = getAboveOffset();
+                final int historySize = ev.getHistorySize();
+                for (int i = 0; i < historySize; i++) {
+                    x = addSample(x, ev.getHistoricalEventTime(i), ev.getHistoricalX(i), predict);
+                }
+                x = addSample(x, ev.getEventTime(), ev.getX(), predict);
+                if (predict) {
+                    requestPredictedFrame();
                 } else {
-                    if (nextX < -mLeftBehindViewWidth) {
-                        mAboveView.scrollTo(-mLeftBehindViewWidth, 0);
-                    } else {
-                        mAboveView.scrollBy((int) diffX, 0);
-                    }
+                    setAboveOffset(x);
+                    requestSlideDispatch();
                 }
                 break;
             }
             return false;
         }
-    };
-    
-    private DragAction mRightDragAction = new DragAction() {
-        @Override
-        public boolean onTouchEvent(MotionEvent ev) {
-            int action = ev.getAction() & MotionEvent.ACTION_MASK;
-            switch (action) {
-            case MotionEvent.ACTION_DOWN:
-            {
-                float x = ev.getX();
-                mRightDragAction.mLastMotionX = x;
-                mRightDragAction.mDraggable = mAboveView.getScrollX() != 0;
-                break;
-            }
-            case MotionEvent.ACTION_UP:
-            {
-                if (mRightDragAction.mDraggable) {
-                    int currentX = mAboveView.getScrollX();
-                    int diffX = 0;
-                    if (mRightDragAction.mOpening) {
-                        diffX = mRightBehindViewWidth - currentX;
-                    } else {
-                        diffX = -currentX;
-                    }
-                    mScroller.startScroll(currentX, 0, diffX, 0, mDurationRight);
-                    invalidate();
-                }
-                break;
+        
+        /**
+         * @param currentX The offset before the sample
+         * @param predict true to only record the sample for the next frame
+         * @return The offset after the sample
+         */
+        private int addSample(int currentX, long eventTime, float sampleX, boolean predict) {
+            if (sampleX != mLastSampleX) {
+                mOpening = DrawerMath.isOpeningMove(mLeft, mLastSampleX, sampleX);
+                mLastSampleX = sampleX;
             }
-            case MotionEvent.ACTION_MOVE:
-                if (!mRightDragAction.mDraggable) return false;
-            
-                float newX = ev.getX();
-                float diffX = -(newX - mRightDragAction.mLastMotionX);
-                int x = mAboveView.getScrollX();
-                mRightDragAction.mOpening = newX < mRightDragAction.mLastMotionX;
-                mRightDragAction.mLastMotionX = newX;
-                float nextX = x + diffX;
-                if (nextX < 0) {
-                    mAboveView.scrollTo(0, 0);
-                } else {
-                    if (nextX < mRightBehindViewWidth) {
-                        mAboveView.scrollBy((int) diffX, 0);
-                    } else {
-                        mAboveView.scrollTo(mRightBehindViewWidth, 0);
-                    }
-                }
-                break;
+            mPredictor.addSample(eventTime * NANOS_PER_MILLI, sampleX);
+            return predict ? currentX : dragTo(currentX, sampleX);
+        }
+        
+        /**
+         * @return The offset when the finger is at the position
+         */
+        private int dragTo(int currentX, float motionX) {
+            final int nextX = DrawerMath.dragOffset(currentX, mLastMotionX, motionX, getOpenedX());
+            mLastMotionX = DrawerMath.consumedMotionX(currentX, nextX, mLastMotionX, motionX);
+            return nextX;
+        }
+        
+        private void requestPredictedFrame() {
+            if (mFramePending) return;
+            mFramePending = true;
+            postOnAnimationCompat(SimpleSideDrawer.this, mPredictedFrame);
+        }
+        
+        private void cancelPredictedFrame() {
+            mFramePending = false;
+            removeCallbacks(mPredictedFrame);
+        }
+        
+        /**
+         * Move the above view to where the finger will be when this frame is presented.
+         * The event time and the frame time share the monotonic clock on Android.
+         */
+        private class PredictedFrame implements Runnable {
+            @Override
+            public void run() {
+                mFramePending = false;
+                if (!mDraggable) return;
+                final float x = mPredictor.predict(System.nanoTime() + mFrameIntervalNanos);
+                setAboveOffset(dragTo(getAboveOffset(), x));
+                dispatchSlide();
             }
-            return false;
         }
-    };
+        
+        /**
+         * Start dragging from the current position, e.g. when an edge swipe is detected.
+         * @param ev The event which started the drag
+         */
+        protected void startDrag(MotionEvent ev) {
+            trackVelocity(ev, MotionEvent.ACTION_DOWN);
+            mLastMotionX = ev.getX();
+            mLastSampleX = mLastMotionX;
+            mPredictor.reset();
+            mPredictor.addSample(ev.getEventTime() * NANOS_PER_MILLI, mLastMotionX);
+            mOpening = true;
+            mDraggable = true;
+            setMoving(true);
+            setDrawerState(STATE_DRAGGING, side());
+        }
+        
+        private int side() {
+            return mLeft ? SIDE_LEFT : SIDE_RIGHT;
+        }
+        
+        /**
+         * Settle to the opened or closed position depending on the release velocity.
+         * @param openedX The above view offset when this side is opened
+         * @param openingVelocity The release velocity in pixels/sec, positive towards openedX
+         * @param maxDuration The duration of a settle over the full width
+         */
+        protected void settle(int openedX, float openingVelocity, int maxDuration) {
+            int currentX = getAboveOffset();
+            boolean open = SettleTimeCalculator.shouldOpen(openingVelocity, mMinimumFlingVelocity, mOpening);
+            int diffX = (open ? openedX : 0) - currentX;
+            float velocity = open ? openingVelocity : -openingVelocity;
+            int duration = SettleTimeCalculator.computeDuration(diffX, Math.abs(openedX), velocity, mMinimumFlingVelocity, maxDuration);
+            //the offset moves against the finger, and towards openedX when opening
+            float offsetVelocity = openedX < 0 ? -openingVelocity : openingVelocity;
+            setDrawerState(open ? STATE_OPENING : STATE_CLOSING, side());
+            animateAbove(currentX + diffX, duration, offsetVelocity);
+        }
+    }
+    
+    private final DragAction mLeftDragAction = new DragAction(true);
+    private final DragAction mRightDragAction = new DragAction(false);
     
     /**
      * <p>The default Interpolator of drawer animation is DecelerateInterpolator(9.9).</p>
@@ -193,73 +453,132 @@ public class SimpleSideDrawer extends FrameLayout {
         this(act, new DecelerateInterpolator(0.9f), 180);
     }
     
+    /**
+     * <p>If deferAttach is true, only a transparent touch hook is put on the decor view here.
+     * The content view is moved into the drawer on the first open, on an edge swipe, or when
+     * the main thread becomes idle after the first frame, so that onCreate() and the first
+     * layout pass do not pay for it.</p>
+     * <p>Moving the content detaches it from the window and attaches it again, after it has
+     * been shown. A SurfaceView or a TextureView loses its surface, the focused view loses the
+     * focus and the soft keyboard, and the running view animations are cancelled.
+     * So the idle move is skipped while a view has the focus or the content holds a SurfaceView
+     * or a TextureView, and the content is then moved on the first open or edge swipe.</p>
+     * @see SimpleNavDrawer(Activity act, Interpolator ip, int duration, boolean deferAttach);
+     * @param act
+     * @param deferAttach true to defer wrapping the content view
+     */
+    public SimpleSideDrawer(Activity act, boolean deferAttach) {
+        this(act, new DecelerateInterpolator(0.9f), 180, deferAttach);
+    }
+    
     public SimpleSideDrawer(Activity act, Interpolator ip, int duration) {
+        this(act, ip, duration, false);
+    }
+    
+    public SimpleSideDrawer(Activity act, Interpolator ip, int duration, boolean deferAttach) {
         super(act.getApplicationContext());
         final Context context = act.getApplicationContext();
         mDurationLeft = duration;
         mDurationRight = duration;
         mWindow = act.getWindow();
-        mScroller = new Scroller(context, ip);
+        mAnimator = new DrawerAnimator(new AboveAnimatorCallback(), ip);
+        final ViewConfiguration configuration = ViewConfiguration.get(context);
+        mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+        mTouchSlop = configuration.getScaledTouchSlop();
+        //obtained now, so that the first drag allocates nothing
+        mVelocityTracker = VelocityTracker.obtain();
+        final float refreshRate = act.getWindowManager().getDefaultDisplay().getRefreshRate();
+        mMetricsRecorder = new AnimationMetricsRecorder(refreshRate);
+        mFrameIntervalNanos = (long) (1000000000L / (refreshRate < 1f ? 60f : refreshRate));
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mEdgeWidth = (int) (DEFAULT_EDGE_WIDTH_DIP * metrics.density + 0.5f);
         
         final int fp = LayoutParams.FILL_PARENT;
         final int wp = LayoutParams.WRAP_CONTENT;
-        //behind
-        mBehindView = new BehindLinearLayout(context);
-        mBehindView.setLayoutParams(new LinearLayout.LayoutParams(fp, fp));
-        mBehindView.setOrientation(LinearLayout.HORIZONTAL);
-        //left-behind base
-        mLeftBehindBase = new BehindLinearLayout(context);
-        mBehindView.addView(mLeftBehindBase, new LinearLayout.LayoutParams(wp, fp));
-        //behind adjusting view
-        mBehindView.addView(new View(context), new LinearLayout.LayoutParams(0, fp, 1));
-        //right-behind base
-        mRightBehindBase = new BehindLinearLayout(context);
-        mBehindView.addView(mRightBehindBase, new LinearLayout.LayoutParams(wp, fp));
-
-        addView(mBehindView);
+        //behind, this view measures and lays out the bases and the above view by itself.
+        //both bases stay measured and laid out, and the hidden one is only skipped in drawing
+        //and refuses the user, so that opening and closing never request a layout
+        mLeftBehindBase = new BehindBaseLayout(context);
+        mLeftBehindBase.setLayoutParams(new FrameLayout.LayoutParams(wp, fp));
+        mRightBehindBase = new BehindBaseLayout(context);
+        mRightBehindBase.setLayoutParams(new FrameLayout.LayoutParams(wp, fp));
+        mLeftBehindBase.setInteractive(false);
+        mRightBehindBase.setInteractive(false);
         
         //above
-        mAboveView = new FrameLayout(context);
+        mAboveView = new AboveFrameLayout(context);
         mAboveView.setLayoutParams(new FrameLayout.LayoutParams(fp, fp));
-        //overlay is used for controlling drag action, slid to close/open.
-        mOverlay = new OverlayView(getContext());
-        mOverlay.setLayoutParams(new FrameLayout.LayoutParams(fp, fp, Gravity.BOTTOM));
-        mOverlay.setEnabled(true);
-        mOverlay.setVisibility(View.GONE);
-        mOverlay.setOnClickListener(new OnClickListener() {
-            @Override public void onClick(View v) {
-                if ( mLeftBehindBase.getVisibility() != View.GONE ) {
-                    closeLeftSide();
-                } else if ( mRightBehindBase.getVisibility() != View.GONE ){
-                    closeRightSide();
-                }
-            }
-        });
         
-        ViewGroup decor = (ViewGroup) mWindow.getDecorView();
+        final ViewGroup decor = (ViewGroup) mWindow.getDecorView();
+        if (deferAttach) {
+            //an empty drawer on top of the content, which only watches for the edge swipe
+            decor.addView(this);
+        } else {
+            assemble();
+        }
+    }
+    
+    /**
+     * Move the content view of the window into the above view, and the behind view under it.
+     */
+    private void assemble() {
+        if (mAssembled) return;
+        mAssembled = true;
+        if (mAssembler != null) {
+            Looper.myQueue().removeIdleHandler(mAssembler);
+            mAssembler = null;
+        }
+        
+        final ViewGroup decor = (ViewGroup) mWindow.getDecorView();
         ViewGroup above = (ViewGroup) decor.getChildAt(0);//including actionbar
         decor.removeView(above);
-        above.setBackgroundDrawable(decor.getBackground());
+        //the content and the exposed strip of the behind view draw the window background,
+        //so the decor does not need to draw it under both of them.
+        //clear the decor first, it drops the callback and the visibility of the drawable
+        final Drawable background = decor.getBackground();
+        decor.setBackgroundDrawable(null);
+        above.setBackgroundDrawable(background);
+        if (background != null && background.getConstantState() != null) {
+            mBehindBackground = background.getConstantState().newDrawable();
+        }
         mAboveView.addView(above);
-        mAboveView.addView(mOverlay);
-        decor.addView(this);
+        mAboveView.setContent(above);
         
+        addView(mLeftBehindBase);
+        addView(mRightBehindBase);
         addView(mAboveView);
+        if (mScrim != null) {
+            addView(mScrim);
+        }
+        if (getParent() != decor) {
+            decor.addView(this);
+        } else if (getWidth() != 0) {
+            //the touch hook has its size already. Fit the new children now instead of in the next traversal,
+            //so that the gesture which has wrapped the content reaches it, and the side to open knows its width
+            measure(MeasureSpec.makeMeasureSpec(getWidth(), MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(getHeight(), MeasureSpec.EXACTLY));
+            layout(getLeft(), getTop(), getRight(), getBottom());
+        }
     }
     
     /**
      * <p>Get the left behind view</p>
+     * <p>If the layout is registered lazily and not inflated yet, it is inflated now.</p>
      * @return The view which you set. Return null if you did not set the view.
      */
     public View getLeftBehindView() {
+        inflateLeftBehindIfNeeded();
         return mLeftBehindBase.getChildAt(0);
     }
     
     /**
      * <p>Get the right behind view</p>
+     * <p>If the layout is registered lazily and not inflated yet, it is inflated now.</p>
      * @return The view which you set. Return null if you did not set the view.
      */
     public View getRightBehindView() {
+        inflateRightBehindIfNeeded();
         return mRightBehindBase.getChildAt(0);
     }
     
@@ -281,7 +600,10 @@ public class SimpleSideDrawer extends FrameLayout {
      * @return The view which will be created from the layout id.
      */
     public View setLeftBehindContentView(int leftBehindLayout) {
-        final View content = ((LayoutInflater) getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE)).inflate(leftBehindLayout, mLeftBehindBase);
+        mLeftBehindLayout = 0;
+        final View content = inflateBehind(leftBehindLayout, mLeftBehindBase);
+        mLeftPooledLayout = mBehindViewPool != null ? leftBehindLayout : 0;
+        mLeftPooledConfiguration = mBehindViewPool != null ? currentConfiguration() : null;
         mLeftPaddingRect = new Rect(content.getPaddingLeft(), content.getPaddingTop(), content.getPaddingRight(), content.getPaddingBottom());
         mLeftBehindView = content;
         return content;
@@ -294,249 +616,1754 @@ public class SimpleSideDrawer extends FrameLayout {
      * @return The view which will be created from the layout id.
      */
     public View setRightBehindContentView(int rightBehindLayout) {
-        final View content = ((LayoutInflater) getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE)).inflate(rightBehindLayout, mRightBehindBase);
+        mRightBehindLayout = 0;
+        final View content = inflateBehind(rightBehindLayout, mRightBehindBase);
+        mRightPooledLayout = mBehindViewPool != null ? rightBehindLayout : 0;
+        mRightPooledConfiguration = mBehindViewPool != null ? currentConfiguration() : null;
         mRightPaddingRect = new Rect(content.getPaddingLeft(), content.getPaddingTop(), content.getPaddingRight(), content.getPaddingBottom());
         mRightBehindView = content;
         return content;
     }
-
+    
     /**
-     * Change the side scroll interpolator
-     * @param ip Interpolator object
+     * <p>Register the left behind view layout without inflating it.</p>
+     * <p>The layout is inflated on the first openLeftSide(), edge swipe or getLeftBehindView() call,
+     * so that the menu does not cost anything until it is needed.
+     * Use setOnBehindInflateListener() to set up the views once they are created.</p>
+     * @param leftBehindLayout The layout id, under the res/layout directory, which is displayed left side.
      */
-    public void setScrollInterpolator(Interpolator ip) {
-        mScroller = new Scroller(getContext(), ip);
+    public void setLeftBehindContentViewLazily(int leftBehindLayout) {
+        mLeftBehindLayout = leftBehindLayout;
     }
     
     /**
-     * Change the duration time of scrolling
-     * @param msec The duration time should be milli-second
-     * @deprecated You should use setAnimationDurationLeft()
+     * <p>Register the right behind view layout without inflating it.</p>
+     * <p>The layout is inflated on the first openRightSide(), edge swipe or getRightBehindView() call,
+     * so that the menu does not cost anything until it is needed.
+     * Use setOnBehindInflateListener() to set up the views once they are created.</p>
+     * @param rightBehindLayout The layout id, under the res/layout directory, which is displayed right side.
      */
-    public void setAnimationDuration(int msec) {
-        setAnimationDurationLeft(msec);
+    public void setRightBehindContentViewLazily(int rightBehindLayout) {
+        mRightBehindLayout = rightBehindLayout;
     }
     
     /**
-     * Set the duration time of left sliding animation. 
-     * @param msec The duration time should be milli-second ( default = 180 )
+     * <p>Reuse the behind views through the pool.</p>
+     * <p>Call this method before setting the behind views. The behind views set after this call
+     * are taken from the pool if another drawer has returned them, and are returned to the pool
+     * when this drawer is detached from the window.</p>
+     * @param pool The pool, usually BehindViewPool.getInstance(context). null to stop pooling. ( default = null )
      */
-    public void setAnimationDurationLeft(int msec) {
-        mDurationLeft = msec;
+    public void setBehindViewPool(BehindViewPool pool) {
+        mBehindViewPool = pool;
     }
     
-    /**
-     * Set the duration time of ringht sliding animation. 
-     * @param msec The duration time should be milli-second ( default = 180 )
-     */
-    public void setAnimationDurationRight(int msec) {
-        mDurationRight = msec;
+    private View inflateBehind(int layoutId, ViewGroup base) {
+        final View pooled = mBehindViewPool != null ? mBehindViewPool.acquire(layoutId) : null;
+        if (pooled != null) {
+            base.addView(pooled);
+            return base;//same as inflate(layoutId, base)
+        }
+        return ((LayoutInflater) getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE)).inflate(layoutId, base);
     }
     
     /**
-     * Close the behind view by swiping left the front view.
-     * @deprecated You should use closeLeftSide()
+     * The menu may be returned to the pool after the resources moved to a new configuration,
+     * e.g. on a rotation, so keep the one it was inflated under.
      */
-    public void close() {
-        closeLeftSide();
+    private Configuration currentConfiguration() {
+        return new Configuration(getResources().getConfiguration());
     }
     
-    /**
-     * Close the left-side behind view
-     */
-    public void closeLeftSide() {
-        int curX = -mLeftBehindViewWidth;//mAboveView.getScrollX();
-        mScroller.startScroll(curX, 0, -curX, 0, mDurationLeft);
-        invalidate();
+    private void releaseBehind(int layoutId, Configuration configuration, ViewGroup base) {
+        if (layoutId == 0 || base.getChildCount() != 1) return;//replaced by the user
+        final View view = base.getChildAt(0);
+        base.removeView(view);
+        mBehindViewPool.release(layoutId, view, configuration);
     }
     
     /**
-     * Close the right-side behide view 
+     * {@hide}
      */
-    public void closeRightSide() {
-        int curX = mRightBehindViewWidth;//mAboveView.getScrollX();
-        mScroller.startScroll(curX, 0, -curX, 0, mDurationRight);
-        invalidate();
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mBehindViewPool != null) {
+            releaseBehind(mLeftPooledLayout, mLeftPooledConfiguration, mLeftBehindBase);
+            releaseBehind(mRightPooledLayout, mRightPooledConfiguration, mRightBehindBase);
+            mLeftPooledLayout = 0;
+            mRightPooledLayout = 0;
+            mLeftPooledConfiguration = null;
+            mRightPooledConfiguration = null;
+        }
     }
     
     /**
-     * Open the behind view by swiping the front view right
-     * @deprecated You should use openLeftSide()
+     * Register a callback to be invoked when a lazily registered behind view is inflated.
+     * @param listener The callback that will run
      */
-    public void open() {
-        openLeftSide();
+    public void setOnBehindInflateListener(OnBehindInflateListener listener) {
+        mOnBehindInflateListener = listener;
     }
     
     /**
-     * Open the left behind view by swiping the front view right
+     * <p>Inflate the lazily registered behind views when the main thread becomes idle,
+     * one layout per idle pass, so that the first open does not pay the inflation.</p>
+     * <p>Call this method on the main thread, e.g. at the end of onCreate().</p>
      */
-    public void openLeftSide() {
-        mLeftBehindBase.setVisibility( View.VISIBLE );
-        mRightBehindBase.setVisibility( View.GONE );
-            
-        int curX = mAboveView.getScrollX();
-        mScroller.startScroll(curX, 0, -mLeftBehindViewWidth, 0, mDurationLeft);
-        invalidate();
+    public void preInflateWhenIdle() {
+        if (mPreInflater != null || (mLeftBehindLayout == 0 && mRightBehindLayout == 0)) return;
+        mPreInflater = new PreInflater();
+        Looper.myQueue().addIdleHandler(mPreInflater);
     }
     
-    public void openRightSide() {
-        mRightBehindBase.setVisibility( View.VISIBLE );
-        mLeftBehindBase.setVisibility( View.GONE );
-        
-        int curX = mAboveView.getScrollX();
-        mScroller.startScroll(curX, 0, mRightBehindViewWidth, 0, mDurationRight);
-        invalidate();
+    private boolean inflateLeftBehindIfNeeded() {
+        if (mLeftBehindLayout == 0) return false;
+        final View content = setLeftBehindContentView(mLeftBehindLayout);
+        if (mOnBehindInflateListener != null) {
+            mOnBehindInflateListener.onLeftBehindInflated(content);
+        }
+        restorePendingHierarchy();
+        return true;
     }
     
-    /**
-     * If the behind view is opened, close it. If the behind view is closed, open it.
-     * @deprecated You should use toggleLeftDrawer()
-     */
-    public void toggleDrawer() {
-        toggleLeftDrawer();
+    private boolean inflateRightBehindIfNeeded() {
+        if (mRightBehindLayout == 0) return false;
+        final View content = setRightBehindContentView(mRightBehindLayout);
+        if (mOnBehindInflateListener != null) {
+            mOnBehindInflateListener.onRightBehindInflated(content);
+        }
+        restorePendingHierarchy();
+        return true;
     }
     
     /**
-     * If the left behind view is opened, close it. If the left behind view is closed, open it.
+     * Make the left behind view ready to be slid in.
      */
-    public void toggleLeftDrawer() {
-        if (isClosed()) {
-            openLeftSide();
-        } else {
-            closeLeftSide();
+    private void showLeftBehind() {
+        assemble();
+        final boolean inflated = inflateLeftBehindIfNeeded();
+        if (refitBehindBase(mLeftBehindBase, inflated)) {
+            mLeftBehindViewWidth = mLeftBehindBase.getMeasuredWidth();
         }
+        mLeftBehindBase.setInteractive(true);
+        mRightBehindBase.setInteractive(false);
     }
     
     /**
-     * If the right behind view is opened, close it. If the left behind view is closed, open it.
+     * Make the right behind view ready to be slid in.
      */
-    public void toggleRightDrawer() {
-        if (isClosed()) {
-            openRightSide();
-        } else {
-            closeRightSide();
+    private void showRightBehind() {
+        assemble();
+        final boolean inflated = inflateRightBehindIfNeeded();
+        if (refitBehindBase(mRightBehindBase, inflated)) {
+            mRightBehindViewWidth = mRightBehindBase.getMeasuredWidth();
         }
+        mRightBehindBase.setInteractive(true);
+        mLeftBehindBase.setInteractive(false);
     }
-
+    
     /**
-     * Check the current status of the behind view
-     * @return
+     * <p>Measure and lay out the base alone, before it is shown.</p>
+     * <p>A lazily inflated view has not been measured in the last layout pass, and a closed base
+     * keeps the window insets of the last time it was shown. Fit it here to know how far
+     * the above view should slide, without a layout pass of the whole window.</p>
+     * @param inflated true if the content of the base has just been inflated
+     * @return true if the base was measured
      */
-    public boolean isClosed() {
-        return mAboveView != null && mAboveView.getScrollX() == 0;
+    private boolean refitBehindBase(BehindBaseLayout base, boolean inflated) {
+        final boolean moved = base.takeInsets(mBehindInsetLeft, mBehindInsetTop);
+        if (!inflated && !moved) return false;
+        if (getWidth() == 0) return false;//not laid out yet, the first layout pass measures it
+        measureBehindBase(base, getWidth(), getHeight());
+        layoutBehindBase(base, getWidth());
+        return true;
     }
     
-    private boolean isLeftSideOpened() {
-        return mLeftBehindBase.getVisibility() == View.VISIBLE && mRightBehindBase.getVisibility() == View.GONE;
+    /**
+     * The base is as wide as its content, up to the behind area, and as tall as the behind area,
+     * inside the window insets it has taken.
+     */
+    private void measureBehindBase(BehindBaseLayout base, int width, int height) {
+        base.measure(MeasureSpec.makeMeasureSpec(Math.max(0, width - base.mInsetLeft), MeasureSpec.AT_MOST),
+                MeasureSpec.makeMeasureSpec(Math.max(0, height - base.mInsetTop), MeasureSpec.EXACTLY));
     }
     
-    private boolean isRightSideOpened() {
-        return mRightBehindBase.getVisibility() == View.VISIBLE && mLeftBehindBase.getVisibility() == View.GONE;
+    /**
+     * Put the left base on the left edge and the right base on the right edge of the behind area.
+     */
+    private void layoutBehindBase(BehindBaseLayout base, int width) {
+        final int top = base.mInsetTop;
+        if (base == mLeftBehindBase) {
+            base.layout(base.mInsetLeft, top, base.mInsetLeft + base.getMeasuredWidth(), top + base.getMeasuredHeight());
+        } else {
+            base.layout(width - base.getMeasuredWidth(), top, width, top + base.getMeasuredHeight());
+        }
     }
     
     /**
-     * Need to adjust the behind view height
-     * {@hide}
+     * Keep the new system window insets. Only the shown base takes them now,
+     * a closed base takes them when it is opened next time.
      */
-    @Override
-    public void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
-        mLeftBehindViewWidth = mLeftBehindBase.getMeasuredWidth();
-        mRightBehindViewWidth = mRightBehindBase.getMeasuredWidth();
-
-        //adjust the behind display area
-        ViewGroup decor = (ViewGroup) mWindow.getDecorView();
-        Rect rect = new Rect();
-        decor.getWindowVisibleDisplayFrame(rect);
-        mBehindView.fitDisplay(rect);
+    private void setSystemWindowInsets(int left, int top) {
+        if (mBehindInsetLeft == left && mBehindInsetTop == top) return;
+        mBehindInsetLeft = left;
+        mBehindInsetTop = top;
+        if (mStateSide == SIDE_NONE || !mAssembled) return;
+        
+        final BehindBaseLayout base = getBehindBase(mStateSide);
+        if (!refitBehindBase(base, false)) return;
+        if (base == mLeftBehindBase) {
+            mLeftBehindViewWidth = base.getMeasuredWidth();
+        } else {
+            mRightBehindViewWidth = base.getMeasuredWidth();
+        }
+        if (mState == STATE_OPEN) {
+            setAboveOffset(mStateSide == SIDE_LEFT ? -mLeftBehindViewWidth : mRightBehindViewWidth);
+        }
+        invalidate();
     }
     
     /**
-     * Side scroll animation
+     * Take the system window insets before Android 4.4W. They are passed on to the content.
      * {@hide}
      */
     @Override
-    public void computeScroll() {
-        if (mScroller.computeScrollOffset()) {
-            mAboveView.scrollTo(mScroller.getCurrX(), mScroller.getCurrY());
-            invalidate();
-        } else {
-            if (mAboveView.getScrollX() == 0) {
-                mOverlay.setVisibility(View.GONE);
-                mLeftBehindBase.setVisibility(View.GONE);
-                mRightBehindBase.setVisibility(View.GONE);
-            } else {
-                mOverlay.setVisibility(View.VISIBLE);
-            }
+    protected boolean fitSystemWindows(Rect insets) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT_WATCH) {
+            setSystemWindowInsets(insets.left, insets.top);
         }
+        return super.fitSystemWindows(insets);
     }
     
     /**
+     * Take the system window insets. They are passed on to the content unconsumed.
+     * The IME only changes the bottom inset, which the drawer does not use, so a keyboard
+     * animation returns here without any work.
      * {@hide}
      */
+    @TargetApi(Build.VERSION_CODES.KITKAT_WATCH)
     @Override
-    public boolean onTouchEvent(MotionEvent ev) {
-        if (isLeftSideOpened()) {
-            return mLeftDragAction.onTouchEvent(ev);
-        } else if (isRightSideOpened()) {
-            return mRightDragAction.onTouchEvent(ev);
-        } else {
-            return true;
-        }
+    public WindowInsets onApplyWindowInsets(WindowInsets insets) {
+        setSystemWindowInsets(insets.getSystemWindowInsetLeft(), insets.getSystemWindowInsetTop());
+        return insets;
+    }
+    
+    private boolean hasLeftBehindContent() {
+        return mLeftBehindView != null || mLeftBehindLayout != 0;
+    }
+    
+    private boolean hasRightBehindContent() {
+        return mRightBehindView != null || mRightBehindLayout != 0;
     }
 
-    private class BehindLinearLayout extends LinearLayout {
-
-        public BehindLinearLayout(Context context) {
-            super(context);
-        }
-        
-        /**
-         * Adjust the behind view
-         * @param rect The display area
-         */
-        public void fitDisplay(Rect rect) {
-            mBehindView.setPadding(rect.left, rect.top, 0, 0);
-            requestLayout();
-        }
+    /**
+     * Change the side scroll interpolator
+     * @param ip Interpolator object
+     */
+    public void setScrollInterpolator(Interpolator ip) {
+        mAnimator.setInterpolator(ip);
     }
     
     /**
-     * Overlay view only when the behind menu is appeared.
-     * This view control scrolling the above view  
-     * @author Masahiko Adachi
+     * Change the motion model of the drawer animation.
+     * @param mode ANIMATION_MODE_TWEEN ( default ) or ANIMATION_MODE_SPRING.
+     *             The animation durations and the interpolator are not used by ANIMATION_MODE_SPRING.
      */
-    private class OverlayView extends View {
-        private static final float CLICK_RANGE = 3;
-        private float mDownX;
-        private float mDownY;
-        private OnClickListener mClickListener;
-        public OverlayView(Context context) {
-            super(context);
+    public void setAnimationMode(int mode) {
+        if (mode == mAnimationMode) return;
+        mAnimationMode = mode;
+        final boolean running = mAnimator.isRunning();
+        final int finalX = mAnimator.getFinalX();
+        cancelAboveAnimation();
+        mAnimator.setSpring(mode == ANIMATION_MODE_SPRING ? mSpring : null);
+        if (running) {
+            //continue to the same target with the new motion
+            final int range = finalX < 0 || getAboveOffset() < 0 ? mLeftBehindViewWidth : mRightBehindViewWidth;
+            final int duration = finalX < 0 || getAboveOffset() < 0 ? mDurationLeft : mDurationRight;
+            animateAbove(finalX, SettleTimeCalculator.computeDuration(finalX - getAboveOffset(), range, 0f, mMinimumFlingVelocity, duration));
         }
+    }
+    
+    /**
+     * Get the current animation mode
+     * @return ANIMATION_MODE_TWEEN or ANIMATION_MODE_SPRING
+     */
+    public int getAnimationMode() {
+        return mAnimationMode;
+    }
+    
+    /**
+     * Configure the spring of ANIMATION_MODE_SPRING.
+     * @param stiffness The spring stiffness ( default = 1500 ). Must be positive.
+     * @param dampingRatio The damping ratio ( default = 1, critically damped ). Must be positive.
+     *                     Smaller values overshoot, which is clamped at the ends of the drawer.
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        mSpring.setSpring(stiffness, dampingRatio);
+    }
+    
+    /**
+     * Change the way the above view is moved while the drawer slides.
+     * @param mode RENDER_MODE_LAYER ( default on Android 3.0 or later ) or RENDER_MODE_SCROLL.
+     *             RENDER_MODE_LAYER falls back to RENDER_MODE_SCROLL on older platforms.
+     */
+    public void setRenderMode(int mode) {
+        if (mode == RENDER_MODE_LAYER && Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) {
+            mode = RENDER_MODE_SCROLL;
+        }
+        if (mode == mRenderMode) return;
+        
+        int offset = getAboveOffset();
+        setAboveOffset(0);
+        setAboveLayerEnabled(false);
+        mRenderMode = mode;
+        setAboveOffset(offset);
+        if (mAnimator.isRunning()) {
+            setAboveLayerEnabled(true);
+        }
+    }
+    
+    /**
+     * Get the current render mode
+     * @return RENDER_MODE_LAYER or RENDER_MODE_SCROLL
+     */
+    public int getRenderMode() {
+        return mRenderMode;
+    }
+    
+    /**
+     * <p>Draw the behind view from a cached snapshot while the drawer slides,
+     * instead of redrawing its view tree on every frame.</p>
+     * <p>A hardware layer is used when the window is hardware accelerated, otherwise a bitmap.
+     * Either is kept and reused for the next slides, and is only drawn again when the behind view
+     * invalidates itself. The bitmap is left for the live views once the drawer settles.
+     * The layer stays while the menu is opened, so a menu which keeps changing is also drawn
+     * into the layer. Both are released when this is disabled or the drawer is detached.</p>
+     * @param enabled true to enable the snapshot ( default = false )
+     */
+    public void setBehindSnapshotEnabled(boolean enabled) {
+        mBehindSnapshotEnabled = enabled;
+        if (!enabled) {
+            mLeftBehindBase.setSnapshotActive(false);
+            mRightBehindBase.setSnapshotActive(false);
+            mLeftBehindBase.releaseSnapshot();
+            mRightBehindBase.releaseSnapshot();
+        }
+    }
+    
+    /**
+     * <p>Replace the above content by a static snapshot while a behind view is fully opened,
+     * so that the covered content stops drawing.
+     * The live content is shown again as soon as the drawer starts to close.</p>
+     * <p>The snapshot is drawn in software, so SurfaceView or TextureView content is not captured,
+     * and the content is left live if it draws a hardware bitmap, e.g. the one of an image loader
+     * on Android 8.0 or later. The snapshot is an ARGB_8888 bitmap as large as the content,
+     * which is kept for the next opening until this is disabled.</p>
+     * @param enabled true to freeze the content ( default = false )
+     */
+    public void setFreezeContentWhenOpened(boolean enabled) {
+        mFreezeContentEnabled = enabled;
+        if (!enabled) {
+            thawContent();
+            mAboveView.releaseFrozen();
+        }
+    }
+    
+    /**
+     * Register a callback to be invoked when the above content is frozen or thawed,
+     * e.g. to pause the work of the covered content.
+     * @param listener The callback that will run
+     */
+    public void setOnContentFreezeListener(OnContentFreezeListener listener) {
+        mOnContentFreezeListener = listener;
+    }
+    
+    /**
+     * <p>Slide the behind view of the side slower than the above view, as if it were further away.</p>
+     * <p>Only available on Android 3.0 or later. The effect only changes the view properties,
+     * so the menu is not redrawn while sliding.</p>
+     * @param side SIDE_LEFT or SIDE_RIGHT
+     * @param factor The lag of the closed menu, in the ratio to its width, from 0 to 1 ( default = 0 )
+     */
+    public void setParallax(int side, float factor) {
+        getBehindBase(side).mParallax = Math.max(0f, Math.min(1f, factor));
+        updateSlideEffects();
+    }
+    
+    /**
+     * <p>Scale the behind view of the side up from the scale to its full size while it opens.</p>
+     * <p>Only available on Android 3.0 or later. The effect only changes the view properties,
+     * so the menu is not redrawn while sliding.</p>
+     * @param side SIDE_LEFT or SIDE_RIGHT
+     * @param scale The scale of the closed menu, from 0 to 1 ( default = 1 )
+     */
+    public void setBehindScale(int side, float scale) {
+        getBehindBase(side).mClosedScale = Math.max(0f, Math.min(1f, scale));
+        updateSlideEffects();
+    }
+    
+    /**
+     * <p>Dim the above view with the color while the side opens.</p>
+     * <p>Only available on Android 3.0 or later. The scrim is a view over the content
+     * whose alpha follows the slide, so the content is not redrawn while sliding.</p>
+     * @param side SIDE_LEFT or SIDE_RIGHT
+     * @param color The color when the side is opened. Its alpha is the strength of the dimming.
+     *              ( default = Color.TRANSPARENT, no scrim )
+     */
+    public void setScrimColor(int side, int color) {
+        getBehindBase(side).mScrimColor = color;
+        if (mScrim == null && Color.alpha(color) != 0
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            mScrim = new ScrimView(getContext());
+            mScrim.setLayoutParams(new FrameLayout.LayoutParams(LayoutParams.FILL_PARENT, LayoutParams.FILL_PARENT));
+            mScrim.setVisibility(View.INVISIBLE);
+            if (mAssembled) {
+                addView(mScrim);
+            }
+        }
+        updateSlideEffects();
+    }
+    
+    private BehindBaseLayout getBehindBase(int side) {
+        if (side == SIDE_LEFT) {
+            return mLeftBehindBase;
+        } else if (side == SIDE_RIGHT) {
+            return mRightBehindBase;
+        }
+        throw new IllegalArgumentException("side must be SIDE_LEFT or SIDE_RIGHT: " + side);
+    }
+    
+    private void updateSlideEffects() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) return;
+        mSlideEffectsEnabled = mLeftBehindBase.hasSlideEffects() || mRightBehindBase.hasSlideEffects() || mScrim != null;
+        applySlideEffects(getAboveOffset());//also resets the effects which were turned off
+    }
+    
+    /**
+     * Update the view properties of the effects for the above view offset.
+     */
+    private void applySlideEffects(int offset) {
+        final float left = offset < 0 ? slideFraction(-offset, mLeftBehindViewWidth) : 0f;
+        final float right = 0 < offset ? slideFraction(offset, mRightBehindViewWidth) : 0f;
+        mLeftBehindBase.applySlideEffects(left, true);
+        mRightBehindBase.applySlideEffects(right, false);
+        if (mScrim != null) {
+            if (offset < 0) {
+                mScrim.apply(offset, left, mLeftBehindBase.mScrimColor);
+            } else {
+                mScrim.apply(offset, right, mRightBehindBase.mScrimColor);
+            }
+        }
+    }
+    
+    /**
+     * <p>Tint the area which the drawer draws more than once in red, and count it.</p>
+     * <p>This is a debugging aid. Don't enable it in a release build.</p>
+     * @see #getDrawerOverdrawPixels()
+     * @param enabled true to show the overdraw ( default = false )
+     */
+    public void setOverdrawDebugEnabled(boolean enabled) {
+        mOverdrawDebugEnabled = enabled;
+        if (enabled && mOverdrawPaint == null) {
+            mOverdrawPaint = new Paint();
+            mOverdrawPaint.setColor(Color.argb(0x60, 0xff, 0x00, 0x00));
+        }
+        invalidate();
+    }
+    
+    /**
+     * <p>Get the number of pixels which the backgrounds around the drawer drew more than once
+     * in the last frame. Only counted while setOverdrawDebugEnabled(true).</p>
+     * <p>The backgrounds are the decor, the above content and the scrim over the covered area,
+     * and the window background, the base and the menu in the exposed strip of the behind view.
+     * The views inside the content and the menu are not counted.</p>
+     * @return The overdrawn pixels added by the drawer
+     */
+    public long getDrawerOverdrawPixels() {
+        return mDrawerOverdrawPixels;
+    }
+    
+    /**
+     * Enable to open the behind views by swiping from the left or right edge of the screen.
+     * @param enabled true to enable the edge swipe ( default = false )
+     */
+    public void setEdgeSwipeEnabled(boolean enabled) {
+        mEdgeSwipeEnabled = enabled;
+        mEdgeSide = EDGE_NONE;
+    }
+    
+    /**
+     * Set the width of the screen edge from which a swipe opens the behind view.
+     * @param px The width in pixels ( default = 20dip )
+     */
+    public void setEdgeSwipeWidth(int px) {
+        mEdgeWidth = px;
+    }
+    
+    /**
+     * <p>Record the frames of every drawer animation and report them to the listener.</p>
+     * <p>Nothing is recorded while no listener is set.</p>
+     * @param listener The callback that will run, or null to stop recording
+     */
+    public void setOnAnimationMetricsListener(OnAnimationMetricsListener listener) {
+        mMetricsRecorder.setListener(listener);
+    }
+    
+    /**
+     * Change the duration time of scrolling
+     * @param msec The duration time should be milli-second
+     * @deprecated You should use setAnimationDurationLeft()
+     */
+    public void setAnimationDuration(int msec) {
+        setAnimationDurationLeft(msec);
+    }
+    
+    /**
+     * Set the duration time of left sliding animation. 
+     * @param msec The duration time should be milli-second ( default = 180 )
+     */
+    public void setAnimationDurationLeft(int msec) {
+        mDurationLeft = msec;
+    }
+    
+    /**
+     * Set the duration time of ringht sliding animation. 
+     * @param msec The duration time should be milli-second ( default = 180 )
+     */
+    public void setAnimationDurationRight(int msec) {
+        mDurationRight = msec;
+    }
+    
+    /**
+     * Close the behind view by swiping left the front view.
+     * @deprecated You should use closeLeftSide()
+     */
+    public void close() {
+        closeLeftSide();
+    }
+    
+    /**
+     * Close the left-side behind view.
+     * Nothing happens while it is closing or closed, or while the user drags the drawer.
+     */
+    public void closeLeftSide() {
+        if (mStateSide != SIDE_LEFT || mState == STATE_CLOSING || mState == STATE_DRAGGING) return;
+        mMetricsRecorder.markRequest();
+        setDrawerState(STATE_CLOSING, SIDE_LEFT);
+        animateAbove(0, scaledDuration(0, mLeftBehindViewWidth, mDurationLeft));
+    }
+    
+    /**
+     * Close the right-side behide view.
+     * Nothing happens while it is closing or closed, or while the user drags the drawer.
+     */
+    public void closeRightSide() {
+        if (mStateSide != SIDE_RIGHT || mState == STATE_CLOSING || mState == STATE_DRAGGING) return;
+        mMetricsRecorder.markRequest();
+        setDrawerState(STATE_CLOSING, SIDE_RIGHT);
+        animateAbove(0, scaledDuration(0, mRightBehindViewWidth, mDurationRight));
+    }
+    
+    /**
+     * Open the behind view by swiping the front view right
+     * @deprecated You should use openLeftSide()
+     */
+    public void open() {
+        openLeftSide();
+    }
+    
+    /**
+     * Open the left behind view by swiping the front view right.
+     * Nothing happens while the left side is opening or opened, while the right side is shown,
+     * or while the user drags the drawer.
+     */
+    public void openLeftSide() {
+        if (mStateSide == SIDE_RIGHT) return;
+        if (mState == STATE_OPENING || mState == STATE_OPEN || mState == STATE_DRAGGING) return;
+        mMetricsRecorder.markRequest();
+        showLeftBehind();
+        setDrawerState(STATE_OPENING, SIDE_LEFT);
+        animateAbove(-mLeftBehindViewWidth, scaledDuration(-mLeftBehindViewWidth, mLeftBehindViewWidth, mDurationLeft));
+    }
+    
+    /**
+     * Open the right behind view by swiping the front view left.
+     * Nothing happens while the right side is opening or opened, while the left side is shown,
+     * or while the user drags the drawer.
+     */
+    public void openRightSide() {
+        if (mStateSide == SIDE_LEFT) return;
+        if (mState == STATE_OPENING || mState == STATE_OPEN || mState == STATE_DRAGGING) return;
+        mMetricsRecorder.markRequest();
+        showRightBehind();
+        setDrawerState(STATE_OPENING, SIDE_RIGHT);
+        animateAbove(mRightBehindViewWidth, scaledDuration(mRightBehindViewWidth, mRightBehindViewWidth, mDurationRight));
+    }
+    
+    /**
+     * If the behind view is opened, close it. If the behind view is closed, open it.
+     * @deprecated You should use toggleLeftDrawer()
+     */
+    public void toggleDrawer() {
+        toggleLeftDrawer();
+    }
+    
+    /**
+     * If the left behind view is opened, close it. If the left behind view is closed, open it.
+     * Nothing happens while the user drags the drawer.
+     */
+    public void toggleLeftDrawer() {
+        if (isClosed() || (mStateSide == SIDE_LEFT && mState == STATE_CLOSING)) {
+            openLeftSide();
+        } else {
+            closeSide();
+        }
+    }
+    
+    /**
+     * If the right behind view is opened, close it. If the left behind view is closed, open it.
+     * Nothing happens while the user drags the drawer.
+     */
+    public void toggleRightDrawer() {
+        if (isClosed() || (mStateSide == SIDE_RIGHT && mState == STATE_CLOSING)) {
+            openRightSide();
+        } else {
+            closeSide();
+        }
+    }
+    
+    private void closeSide() {
+        if (mStateSide == SIDE_LEFT) {
+            closeLeftSide();
+        } else {
+            closeRightSide();
+        }
+    }
+
+    /**
+     * Check the current status of the behind view
+     * @return
+     */
+    public boolean isClosed() {
+        return mState == STATE_CLOSED;
+    }
+    
+    /**
+     * Get the current state of the drawer.
+     * @return One of STATE_CLOSED, STATE_DRAGGING, STATE_OPENING, STATE_OPEN and STATE_CLOSING
+     */
+    public int getDrawerState() {
+        return mState;
+    }
+    
+    /**
+     * Get the side which the current state is about.
+     * @return SIDE_LEFT or SIDE_RIGHT, SIDE_NONE while closed
+     */
+    public int getDrawerSide() {
+        return mStateSide;
+    }
+    
+    /**
+     * Register a callback to be invoked when the drawer state changes.
+     * @param listener The callback that will run
+     */
+    public void setOnDrawerStateChangeListener(OnDrawerStateChangeListener listener) {
+        mOnDrawerStateChangeListener = listener;
+    }
+    
+    /**
+     * <p>Move the above view to the predicted finger position at the next frame while dragging,
+     * instead of the position of the latest touch event.</p>
+     * <p>This hides about one frame of the touch latency, but the panel may overshoot slightly
+     * when the finger stops suddenly. Only available on Android 4.1 or later.</p>
+     * @param enabled true to predict the finger position ( default = false )
+     */
+    public void setTouchPredictionEnabled(boolean enabled) {
+        mTouchPredictionEnabled = enabled;
+    }
+    
+    /**
+     * Record the touch events which the drawer receives.
+     * @param recorder The recorder, or null to stop recording ( default = null )
+     */
+    public void setGestureTraceRecorder(GestureTraceRecorder recorder) {
+        mGestureTraceRecorder = recorder;
+    }
+    
+    /**
+     * Count the measure and layout passes, the invalidations and the frame positions of the drawer.
+     * @param counters The counters, or null to stop counting ( default = null )
+     */
+    public void setWorkCounters(DrawerWorkCounters counters) {
+        mWorkCounters = counters;
+    }
+    
+    private boolean isTouchPredictionActive() {
+        return mTouchPredictionEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN;
+    }
+    
+    /**
+     * <p>Save the opened side and the view states of the behind views, e.g. the scroll positions.</p>
+     * <p>The drawer is not a part of the content view, so the Activity does not save it.
+     * Call this method from onSaveInstanceState(). The views need ids to save their states.</p>
+     * @param outState The bundle of the Activity
+     */
+    public void saveState(Bundle outState) {
+        outState.putInt(STATE_OPENED_SIDE, getSettledSide());
+        saveHierarchy(outState, STATE_LEFT_HIERARCHY, mLeftBehindBase, mLeftPendingHierarchy);
+        saveHierarchy(outState, STATE_RIGHT_HIERARCHY, mRightBehindBase, mRightPendingHierarchy);
+    }
+    
+    /**
+     * <p>Restore the state saved by saveState().</p>
+     * <p>Call this method in onCreate() after setting the behind views. An opened side is shown
+     * at the opened position from the first frame, without an animation. A lazily registered
+     * behind view gets its state back when it is inflated, after OnBehindInflateListener.</p>
+     * @param savedState The bundle of the Activity, may be null
+     */
+    public void restoreState(Bundle savedState) {
+        if (savedState == null) return;
+        mLeftPendingHierarchy = savedState.getSparseParcelableArray(STATE_LEFT_HIERARCHY);
+        mRightPendingHierarchy = savedState.getSparseParcelableArray(STATE_RIGHT_HIERARCHY);
+        restorePendingHierarchy();
+        
+        final int side = savedState.getInt(STATE_OPENED_SIDE, SIDE_NONE);
+        if (side == SIDE_NONE || !isClosed()) return;
+        if (side == SIDE_LEFT) {
+            showLeftBehind();
+        } else {
+            showRightBehind();
+        }
+        setDrawerState(STATE_OPEN, side);
+        if (getWidth() == 0) {
+            mPendingOpenedSide = side;//jump in the first layout pass, when the width is known
+        } else {
+            jumpToOpened(side);
+        }
+    }
+    
+    /**
+     * @return The side which the drawer will rest on, SIDE_NONE if it will be closed
+     */
+    private int getSettledSide() {
+        switch (mState) {
+        case STATE_OPENING:
+        case STATE_OPEN:
+            return mStateSide;
+        case STATE_DRAGGING:
+            final int width = mStateSide == SIDE_LEFT ? mLeftBehindViewWidth : mRightBehindViewWidth;
+            return width <= Math.abs(getAboveOffset()) * 2 ? mStateSide : SIDE_NONE;
+        default:
+            return SIDE_NONE;
+        }
+    }
+    
+    private static void saveHierarchy(Bundle outState, String key, ViewGroup base, SparseArray<Parcelable> pending) {
+        if (base.getChildCount() == 0) {
+            if (pending != null) {
+                outState.putSparseParcelableArray(key, pending);//not inflated since the last restore
+            }
+            return;
+        }
+        final SparseArray<Parcelable> container = new SparseArray<Parcelable>();
+        base.getChildAt(0).saveHierarchyState(container);
+        outState.putSparseParcelableArray(key, container);
+    }
+    
+    private void restorePendingHierarchy() {
+        if (mLeftPendingHierarchy != null && mLeftBehindBase.getChildCount() != 0) {
+            mLeftBehindBase.getChildAt(0).restoreHierarchyState(mLeftPendingHierarchy);
+            mLeftPendingHierarchy = null;
+        }
+        if (mRightPendingHierarchy != null && mRightBehindBase.getChildCount() != 0) {
+            mRightBehindBase.getChildAt(0).restoreHierarchyState(mRightPendingHierarchy);
+            mRightPendingHierarchy = null;
+        }
+    }
+    
+    /**
+     * Put the above view at the opened position of the side at once, as an ended animation would.
+     */
+    private void jumpToOpened(int side) {
+        setAboveOffset(side == SIDE_LEFT ? -mLeftBehindViewWidth : mRightBehindViewWidth);
+        dispatchSlide();
+        if (mFreezeContentEnabled) {
+            removeCallbacks(mFreezeContent);
+            post(mFreezeContent);
+        }
+    }
+    
+    /**
+     * Register a callback to be invoked when the above view has moved.
+     * @param listener The callback that will run
+     */
+    public void setOnDrawerSlideListener(OnDrawerSlideListener listener) {
+        mOnDrawerSlideListener = listener;
+    }
+    
+    /**
+     * Report the position in the next animation callback of the frame. Several touch events
+     * which arrive in one frame are reported once.
+     */
+    private void requestSlideDispatch() {
+        if ((mOnDrawerSlideListener == null && mWorkCounters == null) || mSlideDispatchPending) return;
+        mSlideDispatchPending = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postOnAnimationCompat(this, mDispatchSlide);
+        } else {
+            post(mDispatchSlide);
+        }
+    }
+    
+    /**
+     * Report the position now. Called from the animator, which already runs once per frame.
+     */
+    private void dispatchSlide() {
+        if (mSlideDispatchPending) {
+            mSlideDispatchPending = false;
+            removeCallbacks(mDispatchSlide);
+        }
+        if (mWorkCounters != null) {
+            mWorkCounters.onFrame(getAboveOffset());
+        }
+        final OnDrawerSlideListener listener = mOnDrawerSlideListener;
+        if (listener == null) return;
+        
+        final int offset = getAboveOffset();
+        if (offset == mLastSlideOffset) return;
+        mLastSlideOffset = offset;
+        if (offset < 0) {
+            mLastSlideSide = SIDE_LEFT;
+        } else if (0 < offset) {
+            mLastSlideSide = SIDE_RIGHT;
+        }//else, the side which has just been closed
+        if (mLastSlideSide == SIDE_LEFT) {
+            listener.onDrawerSlide(SIDE_LEFT, slideFraction(-offset, mLeftBehindViewWidth));
+        } else if (mLastSlideSide == SIDE_RIGHT) {
+            listener.onDrawerSlide(SIDE_RIGHT, slideFraction(offset, mRightBehindViewWidth));
+        }
+    }
+    
+    private static float slideFraction(int offset, int width) {
+        if (width <= 0) return offset == 0 ? 0f : 1f;
+        return Math.max(0f, Math.min(1f, (float) offset / width));
+    }
+    
+    private void setDrawerState(int state, int side) {
+        if (state == STATE_CLOSED) {
+            side = SIDE_NONE;
+        }
+        if (mState == state && mStateSide == side) return;
+        if (mStateSide != side) {
+            invalidate();//draw the base of the new side
+        }
+        mState = state;
+        mStateSide = side;
+        if (mOnDrawerStateChangeListener != null) {
+            mOnDrawerStateChangeListener.onDrawerStateChanged(state, side);
+        }
+    }
+    
+    private boolean isLeftSideOpened() {
+        return mStateSide == SIDE_LEFT;
+    }
+    
+    private boolean isRightSideOpened() {
+        return mStateSide == SIDE_RIGHT;
+    }
+    
+    /**
+     * The horizontal offset of the above view.
+     * Negative while the left side is shown, positive while the right side is shown.
+     */
+    private int getAboveOffset() {
+        if (mRenderMode == RENDER_MODE_LAYER) {
+            return -(int) getTranslationXCompat(mAboveView);
+        }
+        return mAboveView.getScrollX();
+    }
+    
+    private void setAboveOffset(int x) {
+        if (mRenderMode == RENDER_MODE_LAYER) {
+            setTranslationXCompat(mAboveView, -x);
+        } else {
+            mAboveView.scrollTo(x, 0);
+        }
+        //re-clip the exposed strip of the behind view. A translation alone does not record
+        //this view again. Only this view is recorded, the children keep their display lists and layers
+        invalidate();
+        if (mSlideEffectsEnabled) {
+            applySlideEffects(x);
+        }
+    }
+    
+    private void trackVelocity(MotionEvent ev, int action) {
+        if (action == MotionEvent.ACTION_DOWN) {
+            mVelocityTracker.clear();
+        }
+        mVelocityTracker.addMovement(ev);
+    }
+    
+    /**
+     * Slide the above view to the position. A running animation is retargeted from where it is.
+     */
+    private void animateAbove(int toX, int duration) {
+        animateAbove(toX, duration, 0f);
+    }
+    
+    private void animateAbove(int toX, int duration, float velocity) {
+        setMoving(true);
+        mMetricsRecorder.start(toX != 0);
+        mAnimator.animate(getAboveOffset(), toX, duration, velocity);
+        mMetricsRecorder.onStarted();
+    }
+    
+    /**
+     * Keep an overshooting spring inside the visible behind view.
+     */
+    private int clampAboveOffset(int x) {
+        if (mStateSide == SIDE_LEFT) {
+            return DrawerMath.clampOffset(x, -mLeftBehindViewWidth);
+        } else if (mStateSide == SIDE_RIGHT) {
+            return DrawerMath.clampOffset(x, mRightBehindViewWidth);
+        }
+        return 0;
+    }
+    
+    /**
+     * Stop the running animation where it is, e.g. when the user grabs the above view.
+     */
+    private void cancelAboveAnimation() {
+        if (!mAnimator.isRunning()) return;
+        mAnimator.cancel();
+        mMetricsRecorder.cancel();
+    }
+    
+    /**
+     * The duration for the remaining distance from the current position to the programmatic target,
+     * so that a retargeted animation or a partially dragged drawer does not crawl over a short distance.
+     * @param toX The target offset
+     * @param range The width of the side
+     * @param duration The duration over the full width
+     */
+    private int scaledDuration(int toX, int range, int duration) {
+        return SettleTimeCalculator.computeDuration(toX - getAboveOffset(), range, 0f, mMinimumFlingVelocity, duration);
+    }
+    
+    /**
+     * Called when a drag or an animation starts, and when the drawer settles.
+     */
+    private void setMoving(boolean moving) {
+        if (moving) {
+            thawContent();
+        }
+        setAboveLayerEnabled(moving);
+        final boolean snapshot = moving && mBehindSnapshotEnabled;
+        mLeftBehindBase.setSnapshotActive(snapshot);
+        mRightBehindBase.setSnapshotActive(snapshot);
+    }
+    
+    /**
+     * Keep the above view on a hardware layer only while it is moving,
+     * so that the slide re-composites one texture instead of redrawing the content.
+     */
+    private void setAboveLayerEnabled(boolean enabled) {
+        if (mRenderMode != RENDER_MODE_LAYER) return;
+        setLayerTypeCompat(mAboveView, enabled && mAboveView.isHardwareAccelerated() ? View.LAYER_TYPE_HARDWARE : View.LAYER_TYPE_NONE);
+    }
+    
+    private static boolean isHardwareAcceleratedCompat(View v) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB && v.isHardwareAccelerated();
+    }
+    
+    private static boolean isHardwareAcceleratedCompat(Canvas canvas) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB && canvas.isHardwareAccelerated();
+    }
+    
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static float getTranslationXCompat(View v) {
+        return v.getTranslationX();
+    }
+    
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static void setTranslationXCompat(View v, float x) {
+        v.setTranslationX(x);
+    }
+    
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static void postOnAnimationCompat(View v, Runnable action) {
+        v.postOnAnimation(action);
+    }
+    
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    private static void setLayerTypeCompat(View v, int type) {
+        if (v.getLayerType() != type) {
+            v.setLayerType(type, null);
+        }
+    }
+    
+    /**
+     * Measure the bases and the above view once each, inside the visible display frame.
+     * {@hide}
+     */
+    @Override
+    public void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = getDefaultSize(0, widthMeasureSpec);
+        final int height = getDefaultSize(0, heightMeasureSpec);
+        setMeasuredDimension(width, height);
+        
+        //the closed bases keep their insets, so that their measure specs stay the same
+        //and the measure is skipped when only the insets have changed
+        if (mStateSide != SIDE_NONE) {
+            getBehindBase(mStateSide).takeInsets(mBehindInsetLeft, mBehindInsetTop);
+        }
+        if (mAssembled) {
+            measureBehindBase(mLeftBehindBase, width, height);
+            measureBehindBase(mRightBehindBase, width, height);
+            mAboveView.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+            if (mScrim != null) {
+                mScrim.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+                        MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+            }
+            mLeftBehindViewWidth = mLeftBehindBase.getMeasuredWidth();
+            mRightBehindViewWidth = mRightBehindBase.getMeasuredWidth();
+        }
+        if (mWorkCounters != null) {
+            mWorkCounters.onMeasure();
+        }
+    }
+    
+    /**
+     * Put the left base on the left edge and the right base on the right edge of the behind area,
+     * and the above view over everything.
+     * {@hide}
+     */
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        final int width = r - l;
+        final int height = b - t;
+        if (mAssembled) {
+            layoutBehindBase(mLeftBehindBase, width);
+            layoutBehindBase(mRightBehindBase, width);
+            mAboveView.layout(0, 0, width, height);
+            if (mScrim != null) {
+                mScrim.layout(0, 0, width, height);
+            }
+            if (mPendingOpenedSide != SIDE_NONE && width != 0) {//a window may be laid out empty first
+                final int side = mPendingOpenedSide;
+                mPendingOpenedSide = SIDE_NONE;
+                if (mState == STATE_OPEN && mStateSide == side) {
+                    jumpToOpened(side);
+                }
+            }
+        }
+        if (mBehindBackground != null) {
+            mBehindBackground.setBounds(0, 0, width, height);
+        }
+        if (mWorkCounters != null) {
+            mWorkCounters.onLayout();
+        }
+    }
+    
+    /**
+     * {@hide}
+     */
+    @Override
+    public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+        if (mWorkCounters != null) {
+            mWorkCounters.onInvalidate();
+        }
+        return super.invalidateChildInParent(location, dirty);
+    }
+    
+    /**
+     * {@hide}
+     */
+    @TargetApi(Build.VERSION_CODES.O)
+    @Override
+    public void onDescendantInvalidated(View child, View target) {
+        //hardware accelerated invalidations skip invalidateChildInParent() since Android O
+        if (mWorkCounters != null) {
+            mWorkCounters.onInvalidate();
+        }
+        super.onDescendantInvalidated(child, target);
+    }
+    
+    /**
+     * Move the above view with the animator, and change the state in the frame the animation ends.
+     */
+    private class AboveAnimatorCallback implements DrawerAnimator.Callback {
+        @Override
+        public void onAnimationStep(int x) {
+            setAboveOffset(clampAboveOffset(x));
+            dispatchSlide();
+            mMetricsRecorder.onFrame();
+        }
+        
+        @Override
+        public void onAnimationEnd(int x) {
+            mMetricsRecorder.end();
+            if (mLeftDragAction.mDraggable || mRightDragAction.mDraggable) {
+                return;//the finger took it over
+            }
+            setMoving(false);
+            setDrawerState(x == 0 ? STATE_CLOSED : STATE_OPEN, mStateSide);
+            if (x == 0) {
+                mLeftBehindBase.setInteractive(false);
+                mRightBehindBase.setInteractive(false);
+            } else {
+                if (mFreezeContentEnabled) {
+                    //take the snapshot after this frame, not in it
+                    removeCallbacks(mFreezeContent);
+                    post(mFreezeContent);
+                }
+            }
+        }
+    }
+    
+    private void thawContent() {
+        removeCallbacks(mFreezeContent);
+        if (!mAboveView.isFrozen()) return;
+        mAboveView.thaw();
+        if (mOnContentFreezeListener != null) {
+            mOnContentFreezeListener.onContentThawed();
+        }
+    }
+    
+    /**
+     * Draw only the base of the side being shown, and only in the strip
+     * which is not covered by the above view.
+     * {@hide}
+     */
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (child != mLeftBehindBase && child != mRightBehindBase) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+        if (mStateSide != (child == mLeftBehindBase ? SIDE_LEFT : SIDE_RIGHT)) return false;
+        final int offset = getAboveOffset();
+        if (offset == 0) return false;//fully covered
         
-        public void setOnClickListener(OnClickListener listener) {
-            mClickListener = listener;
-            super.setOnClickListener(listener);
+        final int saveCount = canvas.save();
+        if (offset < 0) {
+            canvas.clipRect(0, 0, -offset, getHeight());
+        } else {
+            canvas.clipRect(getWidth() - offset, 0, getWidth(), getHeight());
+        }
+        if (mBehindBackground != null) {
+            mBehindBackground.draw(canvas);
+        }
+        final boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
+    }
+    
+    /**
+     * {@hide}
+     */
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (!mAssembled && mAssembler == null) {
+            //the first frame is on the way, wrap the content once the main thread has nothing to do
+            mAssembler = new Assembler();
+            Looper.myQueue().addIdleHandler(mAssembler);
+        }
+        if (mOverdrawDebugEnabled) {
+            drawOverdrawDebug(canvas);
         }
+    }
+    
+    /**
+     * Count the background layers over the area covered by the above view and over the exposed
+     * strip of the behind view, and tint the area which has more than one.
+     */
+    private void drawOverdrawDebug(Canvas canvas) {
+        final int width = getWidth();
+        final int height = getHeight();
+        final int offset = getAboveOffset();
+        final int exposed = Math.min(width, Math.abs(offset));
+        final int stripLeft = offset < 0 ? 0 : width - exposed;
+        final int stripRight = stripLeft + exposed;
+        final boolean decorBackground = mWindow.getDecorView().getBackground() != null;
         
-        public boolean onTouchEvent(MotionEvent ev) {
-            ev.setLocation(ev.getX() - mAboveView.getScrollX(), 0);
-            SimpleSideDrawer.this.onTouchEvent(ev);
-            int action = ev.getAction() & MotionEvent.ACTION_MASK;
-                float x = ev.getX();
-                float y = ev.getY();
-            if (action == MotionEvent.ACTION_DOWN) {
-                mDownX = x;
-                mDownY = y;
-            } else if (action == MotionEvent.ACTION_UP) {
-                if (mClickListener != null) {
-                    if (Math.abs(mDownX - x) < CLICK_RANGE && Math.abs(mDownY - y) < CLICK_RANGE) {
-                        mClickListener.onClick(this);
-                    }
+        //the covered area: the decor, the background of the content and the scrim
+        final long covered = (long) (width - exposed) * height;
+        long coveredLayers = decorBackground ? covered : 0;
+        final View content = mAboveView.mContent;
+        if (content != null && content.getBackground() != null && content.getVisibility() == View.VISIBLE) {
+            coveredLayers += covered;
+        }
+        if (mScrim != null && mScrim.getVisibility() == View.VISIBLE) {
+            coveredLayers += covered;
+        }
+        
+        //the exposed strip: the decor, the window background, the base and the menu
+        final long strip = (long) exposed * height;
+        long stripLayers = decorBackground ? strip : 0;
+        if (exposed != 0 && mStateSide != SIDE_NONE) {
+            if (mBehindBackground != null) {
+                stripLayers += strip;
+            }
+            final BehindBaseLayout base = getBehindBase(mStateSide);
+            if (base.getBackground() != null) {
+                stripLayers += overlap(stripLeft, stripRight, height, base.getLeft(), base.getTop(), base.getRight(), base.getBottom());
+            }
+            final View menu = base.getChildCount() != 0 ? base.getChildAt(0) : null;
+            if (menu != null && menu.getBackground() != null && menu.getVisibility() == View.VISIBLE) {
+                stripLayers += overlap(stripLeft, stripRight, height, base.getLeft() + menu.getLeft(),
+                        base.getTop() + menu.getTop(), base.getLeft() + menu.getRight(), base.getTop() + menu.getBottom());
+            }
+        }
+        
+        final long coveredOverdraw = Math.max(0L, coveredLayers - covered);
+        final long stripOverdraw = Math.max(0L, stripLayers - strip);
+        mDrawerOverdrawPixels = coveredOverdraw + stripOverdraw;
+        if (coveredOverdraw != 0) {
+            if (offset < 0) {
+                canvas.drawRect(stripRight, 0, width, height, mOverdrawPaint);
+            } else {
+                canvas.drawRect(0, 0, stripLeft, height, mOverdrawPaint);
+            }
+        }
+        if (stripOverdraw != 0) {
+            canvas.drawRect(stripLeft, 0, stripRight, height, mOverdrawPaint);
+        }
+    }
+    
+    /**
+     * @return The area of the rectangle inside the strip from stripLeft to stripRight
+     */
+    private static long overlap(int stripLeft, int stripRight, int height, int left, int top, int right, int bottom) {
+        final int w = Math.min(stripRight, right) - Math.max(stripLeft, left);
+        final int h = Math.min(height, bottom) - Math.max(0, top);
+        return w <= 0 || h <= 0 ? 0 : (long) w * h;
+    }
+    
+    /**
+     * Until the content is wrapped, let every gesture go to the content except the one which
+     * starts on a screen edge.
+     * {@hide}
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (!mAssembled) {
+            if ((ev.getAction() & MotionEvent.ACTION_MASK) != MotionEvent.ACTION_DOWN
+                    || !isEdgeDown(ev.getX())) {
+                return false;
+            }
+            assemble();
+        }
+        if (mGestureTraceRecorder != null) {
+            mGestureTraceRecorder.record(ev);
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+    
+    private boolean isEdgeDown(float x) {
+        if (!mEdgeSwipeEnabled) return false;
+        return (hasLeftBehindContent() && x < mEdgeWidth)
+            || (hasRightBehindContent() && getWidth() - mEdgeWidth <= x);
+    }
+    
+    /**
+     * Steal the touch events from the above view while a side is shown, so that the drawer drags
+     * it or closes on a tap, and otherwise only when an edge swipe is detected.
+     * {@hide}
+     */
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if ((ev.getAction() & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_DOWN
+                && mState != STATE_CLOSED && isOnAbove(ev.getX())) {
+            return true;
+        }
+        return detectEdgeSwipe(ev);
+    }
+    
+    /**
+     * {@hide}
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent ev) {
+        if (isLeftSideOpened() || isRightSideOpened()) {
+            if (isLeftSideOpened()) {
+                mLeftDragAction.onTouchEvent(ev);
+            } else {
+                mRightDragAction.onTouchEvent(ev);
+            }
+            detectTap(ev);
+            return true;
+        } else {
+            //nobody below consumed the gesture, so no intercept is called for the following events
+            detectEdgeSwipe(ev);
+            return true;
+        }
+    }
+    
+    /**
+     * @param x The horizontal position in this view
+     * @return true if the position is on the above view, not on the exposed behind view
+     */
+    private boolean isOnAbove(float x) {
+        final int offset = getAboveOffset();
+        if (offset < 0) {
+            return -offset <= x;
+        } else if (0 < offset) {
+            return x < getWidth() - offset;
+        }
+        return true;
+    }
+    
+    /**
+     * Close the shown side when the above view is tapped.
+     */
+    private void detectTap(MotionEvent ev) {
+        final int action = ev.getAction() & MotionEvent.ACTION_MASK;
+        if (action == MotionEvent.ACTION_DOWN) {
+            mTapDownX = ev.getX();
+            mTapDownY = ev.getY();
+            mTapOnAbove = isOnAbove(mTapDownX);
+        } else if (action == MotionEvent.ACTION_UP && mTapOnAbove) {
+            mTapOnAbove = false;
+            if (Math.abs(mTapDownX - ev.getX()) < TAP_RANGE && Math.abs(mTapDownY - ev.getY()) < TAP_RANGE) {
+                closeSide();
+            }
+        } else if (action == MotionEvent.ACTION_CANCEL) {
+            mTapOnAbove = false;
+        }
+    }
+    
+    /**
+     * Track a gesture which starts on the screen edge while the drawer is closed.
+     * The drag starts once the finger moved beyond the touch slop towards the opening direction.
+     * A gesture which moves vertically first is left to the children.
+     * @return true if the drag started with this event
+     */
+    private boolean detectEdgeSwipe(MotionEvent ev) {
+        if (!mEdgeSwipeEnabled) return false;
+        
+        final int action = ev.getAction() & MotionEvent.ACTION_MASK;
+        switch (action) {
+        case MotionEvent.ACTION_DOWN:
+        {
+            mEdgeSide = EDGE_NONE;
+            if (!isClosed() || mAnimator.isRunning()) break;
+            
+            final float x = ev.getX();
+            if (hasLeftBehindContent() && x < mEdgeWidth) {
+                mEdgeSide = EDGE_LEFT;
+            } else if (hasRightBehindContent() && getWidth() - mEdgeWidth <= x) {
+                mEdgeSide = EDGE_RIGHT;
+            }
+            mEdgeDownX = x;
+            mEdgeDownY = ev.getY();
+            break;
+        }
+        case MotionEvent.ACTION_MOVE:
+        {
+            if (mEdgeSide == EDGE_NONE) break;
+            
+            final float dx = ev.getX() - mEdgeDownX;
+            final float dy = ev.getY() - mEdgeDownY;
+            final float adx = Math.abs(dx);
+            final float ady = Math.abs(dy);
+            if (mTouchSlop < ady && adx < ady) {
+                mEdgeSide = EDGE_NONE;
+                break;
+            }
+            if (mTouchSlop < adx && ady < adx) {
+                final int side = mEdgeSide;
+                mEdgeSide = EDGE_NONE;
+                if (side == EDGE_LEFT && 0 < dx) {
+                    showLeftBehind();
+                    mLeftDragAction.startDrag(ev);
+                    return true;
+                } else if (side == EDGE_RIGHT && dx < 0) {
+                    showRightBehind();
+                    mRightDragAction.startDrag(ev);
+                    return true;
                 }
             }
+            break;
+        }
+        case MotionEvent.ACTION_UP:
+        case MotionEvent.ACTION_CANCEL:
+            mEdgeSide = EDGE_NONE;
+            break;
+        }
+        return false;
+    }
+    
+    /**
+     * Freeze the above content if the drawer is still opened and resting.
+     */
+    private class FreezeContent implements Runnable {
+        @Override
+        public void run() {
+            if (!mFreezeContentEnabled || mAnimator.isRunning() || isClosed()
+                    || mLeftDragAction.mDraggable || mRightDragAction.mDraggable) return;
+            if (mAboveView.freeze() && mOnContentFreezeListener != null) {
+                mOnContentFreezeListener.onContentFrozen();
+            }
+        }
+    }
+    
+    /**
+     * The container of the above content, which can show a snapshot instead of the live content.
+     */
+    private class AboveFrameLayout extends FrameLayout {
+        private View mContent;
+        private boolean mFrozen;
+        private Bitmap mSnapshot;
+        private Canvas mSnapshotCanvas;
+        
+        public AboveFrameLayout(Context context) {
+            super(context);
+        }
+        
+        public void setContent(View content) {
+            mContent = content;
+        }
+        
+        public boolean isFrozen() {
+            return mFrozen;
+        }
+        
+        /**
+         * Draw the content into the snapshot and hide the live content.
+         * INVISIBLE only invalidates, so this does not request a layout.
+         * @return true if the content was frozen
+         */
+        public boolean freeze() {
+            if (mFrozen || mContent == null) return false;
+            final int width = mContent.getWidth();
+            final int height = mContent.getHeight();
+            if (width == 0 || height == 0) return false;
+            
+            if (mSnapshot == null || mSnapshot.getWidth() != width || mSnapshot.getHeight() != height) {
+                releaseFrozen();
+                mSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                mSnapshotCanvas = new Canvas(mSnapshot);
+            } else {
+                mSnapshot.eraseColor(Color.TRANSPARENT);
+            }
+            try {
+                mContent.draw(mSnapshotCanvas);
+            } catch (IllegalArgumentException e) {
+                //a software canvas refuses a hardware bitmap on Android 8.0 or later, which image loaders
+                //use by default. Keep the live content, and drop the bitmap with the canvas left in the middle of the draw
+                releaseFrozen();
+                return false;
+            }
+            mFrozen = true;
+            mContent.setVisibility(View.INVISIBLE);
+            return true;
+        }
+        
+        /**
+         * Show the live content again. The snapshot bitmap is kept for the next freeze.
+         */
+        public void thaw() {
+            if (!mFrozen) return;
+            mFrozen = false;
+            mContent.setVisibility(View.VISIBLE);
+        }
+        
+        public void releaseFrozen() {
+            if (mFrozen) return;
+            if (mSnapshot != null) {
+                mSnapshot.recycle();
+                mSnapshot = null;
+                mSnapshotCanvas = null;
+            }
+        }
+        
+        @Override
+        protected void dispatchDraw(Canvas canvas) {
+            if (mFrozen) {
+                canvas.drawBitmap(mSnapshot, mContent.getLeft(), mContent.getTop(), null);
+            }
+            super.dispatchDraw(canvas);
+        }
+        
+        @Override
+        protected void onDetachedFromWindow() {
+            super.onDetachedFromWindow();
+            thaw();
+            releaseFrozen();
+        }
+    }
+    
+    /**
+     * The base of a behind view, which can draw its menu from a snapshot while the drawer slides.
+     */
+    private class BehindBaseLayout extends LinearLayout {
+        private boolean mSnapshotActive;
+        private boolean mSnapshotValid;
+        private Bitmap mSnapshot;
+        private Canvas mSnapshotCanvas;
+        private float mParallax = 0f;
+        private float mClosedScale = 1f;
+        private int mScrimColor = Color.TRANSPARENT;
+        private int mInsetLeft;
+        private int mInsetTop;
+        private boolean mInteractive = true;
+        
+        public BehindBaseLayout(Context context) {
+            super(context);
+        }
+        
+        /**
+         * Let the user reach the menu only while its side is shown. The focus, the touches and
+         * the accessibility are turned off instead of the visibility, so this does not request a layout.
+         */
+        public void setInteractive(boolean interactive) {
+            if (mInteractive == interactive) return;
+            mInteractive = interactive;
+            setDescendantFocusability(interactive ? FOCUS_AFTER_DESCENDANTS : FOCUS_BLOCK_DESCENDANTS);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                setImportantForAccessibilityCompat(interactive);
+            }
+        }
+        
+        @TargetApi(Build.VERSION_CODES.KITKAT)
+        private void setImportantForAccessibilityCompat(boolean important) {
+            setImportantForAccessibility(important ? IMPORTANT_FOR_ACCESSIBILITY_AUTO
+                    : IMPORTANT_FOR_ACCESSIBILITY_NO_HIDE_DESCENDANTS);
+        }
+        
+        /**
+         * The hidden menu lies under the content, so it would get the touches which
+         * the content did not consume.
+         */
+        @Override
+        public boolean dispatchTouchEvent(MotionEvent ev) {
+            if (!mInteractive && (ev.getAction() & MotionEvent.ACTION_MASK) == MotionEvent.ACTION_DOWN) {
+                return false;
+            }
+            return super.dispatchTouchEvent(ev);
+        }
+        
+        /**
+         * @return true if the insets have changed
+         */
+        public boolean takeInsets(int left, int top) {
+            if (mInsetLeft == left && mInsetTop == top) return false;
+            mInsetLeft = left;
+            mInsetTop = top;
             return true;
         }
+        
+        public boolean hasSlideEffects() {
+            return mParallax != 0f || mClosedScale != 1f;
+        }
+        
+        /**
+         * @param fraction How much this side is opened, from 0 to 1
+         * @param left true if this is the left base
+         */
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        public void applySlideEffects(float fraction, boolean left) {
+            final int width = getWidth();
+            final float lag = (1f - fraction) * width * mParallax;
+            setTranslationX(left ? -lag : lag);
+            final float scale = mClosedScale + (1f - mClosedScale) * fraction;
+            //scale around the edge next to the above view
+            setPivotX(left ? width : 0);
+            setPivotY(getHeight() / 2f);
+            setScaleX(scale);
+            setScaleY(scale);
+        }
+        
+        public void setSnapshotActive(boolean active) {
+            if (mSnapshotActive == active) return;
+            mSnapshotActive = active;
+            if (isHardwareAcceleratedCompat(this)) {
+                //the layer is only re-rendered when the menu invalidates itself.
+                //it is kept after the slide, so that the next slide does not build it again
+                if (active) {
+                    setLayerTypeCompat(this, View.LAYER_TYPE_HARDWARE);
+                }
+            } else {
+                invalidate();
+            }
+        }
+        
+        /**
+         * Free both the layer and the bitmap.
+         */
+        public void releaseSnapshot() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+                setLayerTypeCompat(this, View.LAYER_TYPE_NONE);
+            }
+            releaseSnapshotBitmap();
+        }
+        
+        private void releaseSnapshotBitmap() {
+            if (mSnapshot != null) {
+                mSnapshot.recycle();
+                mSnapshot = null;
+                mSnapshotCanvas = null;
+            }
+            mSnapshotValid = false;
+        }
+        
+        @Override
+        protected void dispatchDraw(Canvas canvas) {
+            final int width = getWidth();
+            final int height = getHeight();
+            if (!mSnapshotActive || isHardwareAcceleratedCompat(canvas) || width == 0 || height == 0) {
+                super.dispatchDraw(canvas);
+                return;
+            }
+            if (!mSnapshotValid) {
+                if (mSnapshot == null || mSnapshot.getWidth() != width || mSnapshot.getHeight() != height) {
+                    releaseSnapshotBitmap();
+                    mSnapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                    mSnapshotCanvas = new Canvas(mSnapshot);
+                } else {
+                    mSnapshot.eraseColor(Color.TRANSPARENT);
+                }
+                super.dispatchDraw(mSnapshotCanvas);
+                mSnapshotValid = true;
+            }
+            canvas.drawBitmap(mSnapshot, 0, 0, null);
+        }
+        
+        @Override
+        public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+            //the menu changed, draw the live views into the snapshot again
+            mSnapshotValid = false;
+            return super.invalidateChildInParent(location, dirty);
+        }
+        
+        @TargetApi(Build.VERSION_CODES.O)
+        @Override
+        public void onDescendantInvalidated(View child, View target) {
+            mSnapshotValid = false;
+            super.onDescendantInvalidated(child, target);
+        }
+        
+        @Override
+        protected void onLayout(boolean changed, int l, int t, int r, int b) {
+            super.onLayout(changed, l, t, r, b);
+            mSnapshotValid = false;
+        }
+        
+        @Override
+        protected void onDetachedFromWindow() {
+            super.onDetachedFromWindow();
+            releaseSnapshot();
+        }
+    }
+    
+    /**
+     * Wrap the content while the main thread is idle, unless the move would disturb the user.
+     */
+    private class Assembler implements MessageQueue.IdleHandler {
+        @Override
+        public boolean queueIdle() {
+            final ViewGroup decor = (ViewGroup) mWindow.getDecorView();
+            if (decor.findFocus() != null || hasSurface(decor.getChildAt(0))) {
+                //left to the first open or edge swipe. mAssembler stays, so that no frame queues it again
+                return false;
+            }
+            mAssembler = null;
+            assemble();
+            return false;
+        }
+    }
+    
+    /**
+     * @return true if the view is or contains a view drawing into its own surface
+     */
+    private static boolean hasSurface(View view) {
+        if (view instanceof SurfaceView) return true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH && isTextureView(view)) return true;
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                if (hasSurface(group.getChildAt(i))) return true;
+            }
+        }
+        return false;
+    }
+    
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private static boolean isTextureView(View view) {
+        return view instanceof TextureView;
+    }
+    
+    private class DispatchSlide implements Runnable {
+        @Override
+        public void run() {
+            mSlideDispatchPending = false;
+            dispatchSlide();
+        }
+    }
+    
+    /**
+     * Dim the above view. It moves with the above view and only changes its alpha while sliding.
+     */
+    private class ScrimView extends View {
+        private int mColor = Color.TRANSPARENT;
+        
+        public ScrimView(Context context) {
+            super(context);
+        }
+        
+        /**
+         * @param offset The above view offset
+         * @param fraction How much the side is opened, from 0 to 1
+         * @param color The scrim color of the side
+         */
+        @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+        public void apply(int offset, float fraction, int color) {
+            final float alpha = fraction * Color.alpha(color) / 255f;
+            if (alpha == 0f) {
+                //INVISIBLE only invalidates, it does not request a layout
+                if (getVisibility() != View.INVISIBLE) {
+                    setVisibility(View.INVISIBLE);
+                }
+                return;
+            }
+            final int opaque = color | 0xff000000;
+            if (mColor != opaque) {
+                mColor = opaque;
+                setBackgroundColor(opaque);
+            }
+            setTranslationX(-offset);
+            setAlpha(alpha);
+            if (getVisibility() != View.VISIBLE) {
+                setVisibility(View.VISIBLE);
+            }
+        }
+        
+        /**
+         * A plain color does not need an offscreen buffer for its alpha.
+         */
+        @Override
+        public boolean hasOverlappingRendering() {
+            return false;
+        }
+    }
+    
+    private class PreInflater implements MessageQueue.IdleHandler {
+        @Override
+        public boolean queueIdle() {
+            if (mLeftBehindLayout != 0) {
+                inflateLeftBehindIfNeeded();
+            } else {
+                inflateRightBehindIfNeeded();
+            }
+            final boolean pending = mLeftBehindLayout != 0 || mRightBehindLayout != 0;
+            if (!pending) {
+                mPreInflater = null;
+            }
+            return pending;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>A damped spring pulling a position towards its target, solved analytically for a unit mass.</p>
+ * <p>The step is exact for any time delta, so a late frame does not make the spring unstable.
+ * This class has no Android dependency and allocates nothing, so that it can be checked and
+ * benchmarked off-device.</p>
+ * @author Masahiko Adachi
+ */
+final class SpringSimulation {
+    static final float DEFAULT_STIFFNESS = 1500f;
+    static final float DEFAULT_DAMPING_RATIO = 1f;//critically damped
+    static final float REST_DISPLACEMENT = 0.5f;//pixels
+    static final float REST_VELOCITY = 20f;//pixels/sec
+    
+    private double mNaturalFreq;
+    private double mDampingRatio;
+    private double mPosition;
+    private double mVelocity;
+    private double mTarget;
+    
+    SpringSimulation() {
+        setSpring(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+    }
+    
+    /**
+     * @param stiffness The spring constant for a unit mass. Must be positive.
+     * @param dampingRatio 1 is critically damped, smaller bounces and larger creeps.
+     *                     Must be positive, an undamped spring never comes to rest.
+     */
+    void setSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0f) {
+            throw new IllegalArgumentException("stiffness must be positive: " + stiffness);
+        }
+        if (dampingRatio <= 0f) {
+            throw new IllegalArgumentException("dampingRatio must be positive: " + dampingRatio);
+        }
+        mNaturalFreq = Math.sqrt(stiffness);
+        mDampingRatio = dampingRatio;
+    }
+    
+    /**
+     * Reset the position and the velocity, e.g. when a drag is released.
+     */
+    void setState(float position, float velocity) {
+        mPosition = position;
+        mVelocity = velocity;
+    }
+    
+    /**
+     * Change the target while keeping the current position and velocity.
+     */
+    void setTarget(float target) {
+        mTarget = target;
+    }
+    
+    float getPosition() {
+        return (float) mPosition;
+    }
+    
+    float getVelocity() {
+        return (float) mVelocity;
+    }
+    
+    float getTarget() {
+        return (float) mTarget;
+    }
+    
+    boolean isAtRest() {
+        return Math.abs(mPosition - mTarget) < REST_DISPLACEMENT && Math.abs(mVelocity) < REST_VELOCITY;
+    }
+    
+    /**
+     * Advance the spring.
+     * @param dt The elapsed time in seconds
+     */
+    void step(float dt) {
+        if (dt <= 0f) return;
+        
+        final double w = mNaturalFreq;
+        final double z = mDampingRatio;
+        final double x0 = mPosition - mTarget;
+        final double v0 = mVelocity;
+        double x;
+        double v;
+        if (z == 1.0) {
+            final double b = v0 + w * x0;
+            final double e = Math.exp(-w * dt);
+            x = (x0 + b * dt) * e;
+            v = (v0 - w * b * dt) * e;
+        } else if (z < 1.0) {
+            final double a = z * w;
+            final double wd = w * Math.sqrt(1.0 - z * z);
+            final double c2 = (v0 + a * x0) / wd;
+            final double e = Math.exp(-a * dt);
+            final double cos = Math.cos(wd * dt);
+            final double sin = Math.sin(wd * dt);
+            x = e * (x0 * cos + c2 * sin);
+            v = e * ((c2 * wd - a * x0) * cos - (a * c2 + x0 * wd) * sin);
+        } else {
+            final double root = Math.sqrt(z * z - 1.0);
+            final double r1 = -w * (z - root);
+            final double r2 = -w * (z + root);
+            final double c2 = (v0 - r1 * x0) / (r2 - r1);
+            final double c1 = x0 - c2;
+            final double e1 = Math.exp(r1 * dt);
+            final double e2 = Math.exp(r2 * dt);
+            x = c1 * e1 + c2 * e2;
+            v = c1 * r1 * e1 + c2 * r2 * e2;
+        }
+        mPosition = mTarget + x;
+        mVelocity = v;
+    }
+}
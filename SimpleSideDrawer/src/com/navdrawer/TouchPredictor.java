@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+/**
+ * <p>Extrapolate the finger position to the time the next frame is presented.</p>
+ * <p>The velocity is estimated from the samples of the last VELOCITY_WINDOW_NANOS, and the
+ * prediction never looks further than MAX_HORIZON_NANOS ahead of the newest sample, so that
+ * a stop or a turn of the finger overshoots at most a few pixels.
+ * This class has no Android dependency and allocates nothing after the construction,
+ * so that it can be checked off-device.</p>
+ * @author Masahiko Adachi
+ */
+final class TouchPredictor {
+    static final long VELOCITY_WINDOW_NANOS = 24000000L;
+    static final long MAX_HORIZON_NANOS = 16000000L;
+    private static final int CAPACITY = 8;
+    
+    private final long[] mTimes = new long[CAPACITY];
+    private final float[] mPositions = new float[CAPACITY];
+    private int mNewest = -1;
+    private int mSize;
+    
+    void reset() {
+        mNewest = -1;
+        mSize = 0;
+    }
+    
+    /**
+     * @param timeNanos The time of the sample. It must not go back.
+     * @param x The position of the sample
+     */
+    void addSample(long timeNanos, float x) {
+        mNewest = (mNewest + 1) % CAPACITY;
+        mTimes[mNewest] = timeNanos;
+        mPositions[mNewest] = x;
+        if (mSize < CAPACITY) {
+            mSize++;
+        }
+    }
+    
+    boolean hasSample() {
+        return mSize != 0;
+    }
+    
+    /**
+     * @return The newest sampled position. Only valid if hasSample().
+     */
+    float getLastPosition() {
+        return mPositions[mNewest];
+    }
+    
+    /**
+     * @param targetNanos The time to predict the position at
+     * @return The predicted position, or the newest position if the velocity is unknown.
+     *         Only valid if hasSample().
+     */
+    float predict(long targetNanos) {
+        final long newestTime = mTimes[mNewest];
+        final float newestX = mPositions[mNewest];
+        //the oldest sample inside the window
+        int oldest = mNewest;
+        for (int i = 1; i < mSize; i++) {
+            final int index = (mNewest - i + CAPACITY) % CAPACITY;
+            if (VELOCITY_WINDOW_NANOS < newestTime - mTimes[index]) break;
+            oldest = index;
+        }
+        final long dt = newestTime - mTimes[oldest];
+        if (dt <= 0) return newestX;
+        
+        final long horizon = Math.min(MAX_HORIZON_NANOS, targetNanos - newestTime);
+        if (horizon <= 0) return newestX;
+        final float velocity = (newestX - mPositions[oldest]) / dt;//pixels/nanosec
+        return newestX + velocity * horizon;
+    }
+}
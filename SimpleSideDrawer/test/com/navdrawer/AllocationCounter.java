@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.monitoring.runtime.instrumentation.AllocationRecorder;
+import com.google.monitoring.runtime.instrumentation.Sampler;
+
+/**
+ * <p>Count the objects the drawer allocates on the calling thread between start() and stop().</p>
+ * <p>An allocation belongs to the drawer if the first frame outside the JDK is a class of the
+ * library. The framework allocating for the drawer, e.g. in invalidate(), is not counted.
+ * It needs the java-allocation-instrumenter javaagent, which the Gradle test task adds.</p>
+ * @author Masahiko Adachi
+ */
+final class AllocationCounter {
+    private static final String LIBRARY_PACKAGE = "com.navdrawer.";
+    private static final String RECORDER_PACKAGE = "com.google.monitoring.";
+    //the test side of the package, which allocates freely
+    private static final String[] TEST_CLASSES = {
+        AllocationCounter.class.getName(),
+        DrawerReplay.class.getName(),
+    };
+    private static final int MAX_SITES = 20;
+    
+    private static final List<String> sSites = new ArrayList<String>();
+    private static Thread sThread;
+    private static boolean sSampling;
+    private static int sCount;
+    private static boolean sInstalled;
+    
+    private AllocationCounter() {
+    }
+    
+    /**
+     * @return true if the javaagent instruments the allocations
+     */
+    static boolean isAvailable() {
+        for (String arg : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (arg.startsWith("-javaagent:") && arg.contains("java-allocation-instrumenter")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static synchronized void start() {
+        if (!sInstalled) {
+            AllocationRecorder.addSampler(new DrawerSampler());
+            sInstalled = true;
+        }
+        sCount = 0;
+        sSites.clear();
+        sThread = Thread.currentThread();
+    }
+    
+    /**
+     * @return The number of the objects allocated by the drawer since start()
+     */
+    static synchronized int stop() {
+        sThread = null;
+        return sCount;
+    }
+    
+    /**
+     * @return The first allocation sites of the last count, for the failure message
+     */
+    static synchronized String getSites() {
+        return sSites.toString();
+    }
+    
+    private static boolean isTestClass(String className) {
+        for (String test : TEST_CLASSES) {
+            if (className.equals(test) || className.startsWith(test + "$")) {
+                return true;
+            }
+        }
+        return className.endsWith("Test");
+    }
+    
+    private static final class DrawerSampler implements Sampler {
+        @Override
+        public void sampleAllocation(int count, String desc, Object newObj, long size) {
+            if (sThread != Thread.currentThread() || sSampling) return;
+            //the stack trace allocates too
+            sSampling = true;
+            try {
+                final StackTraceElement[] stack = new Throwable().getStackTrace();
+                //skip this sampler and the recorder which called it
+                int first = 0;
+                for (int i = 0; i < stack.length; i++) {
+                    if (stack[i].getClassName().startsWith(RECORDER_PACKAGE)) {
+                        first = i + 1;
+                    }
+                }
+                for (int i = first; i < stack.length; i++) {
+                    final StackTraceElement frame = stack[i];
+                    final String className = frame.getClassName();
+                    if (className.startsWith("java.") || className.startsWith("sun.")) {
+                        continue;
+                    }
+                    if (className.startsWith(LIBRARY_PACKAGE) && !isTestClass(className)) {
+                        synchronized (AllocationCounter.class) {
+                            sCount++;
+                            if (sSites.size() < MAX_SITES) {
+                                sSites.add(desc + " at " + frame);
+                            }
+                        }
+                    }
+                    break;
+                }
+            } finally {
+                sSampling = false;
+            }
+        }
+    }
+}
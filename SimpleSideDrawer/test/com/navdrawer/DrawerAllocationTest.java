@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+/**
+ * The drag and the animation run every frame, so the drawer must not allocate in them.
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerAllocationTest {
+    private DrawerReplay mReplay;
+    
+    @Before
+    public void setUp() {
+        assertTrue("run the tests with the allocation agent", AllocationCounter.isAvailable());
+        mReplay = new DrawerReplay();
+        //the first open of each side inflates and measures, which may allocate
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        mReplay.drawer.closeLeftSide();
+        mReplay.settle();
+        mReplay.drawer.openRightSide();
+        mReplay.settle();
+        mReplay.drawer.closeRightSide();
+        mReplay.settle();
+    }
+    
+    @Test
+    public void counterSeesDrawerAllocations() {
+        AllocationCounter.start();
+        new DrawerWorkCounters(1);
+        assertEquals(1, AllocationCounter.stop());
+    }
+    
+    @Test
+    public void openAndCloseAllocatesNothing() {
+        final DrawerReplay.Report report = mReplay.openAndClose();
+        assertEquals(AllocationCounter.getSites(), 0, report.allocations);
+    }
+    
+    @Test
+    public void dragAllocatesNothing() {
+        final int width = mReplay.drawer.getWidth();
+        final DrawerReplay.Report open = mReplay.replay(DrawerReplay.drag(2, width * 0.6f, 100, 300));
+        assertEquals(AllocationCounter.getSites(), 0, open.allocations);
+        assertEquals(SimpleSideDrawer.STATE_OPEN, mReplay.drawer.getDrawerState());
+        final DrawerReplay.Report close = mReplay.replay(DrawerReplay.drag(width - 10, width * 0.4f, 100, 300));
+        assertEquals(AllocationCounter.getSites(), 0, close.allocations);
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, mReplay.drawer.getDrawerState());
+    }
+    
+    @Test
+    public void springAllocatesNothing() {
+        mReplay.drawer.setAnimationMode(SimpleSideDrawer.ANIMATION_MODE_SPRING);
+        final DrawerReplay.Report report = mReplay.openAndClose();
+        assertEquals(AllocationCounter.getSites(), 0, report.allocations);
+    }
+    
+    @Test
+    public void scrollModeAllocatesNothing() {
+        mReplay.drawer.setRenderMode(SimpleSideDrawer.RENDER_MODE_SCROLL);
+        mReplay.settle();
+        final int width = mReplay.drawer.getWidth();
+        final DrawerReplay.Report open = mReplay.replay(DrawerReplay.drag(2, width * 0.6f, 100, 300));
+        assertEquals(AllocationCounter.getSites(), 0, open.allocations);
+        assertEquals(SimpleSideDrawer.STATE_OPEN, mReplay.drawer.getDrawerState());
+        final DrawerReplay.Report close = mReplay.replay(DrawerReplay.drag(width - 10, width * 0.4f, 100, 300));
+        assertEquals(AllocationCounter.getSites(), 0, close.allocations);
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, mReplay.drawer.getDrawerState());
+        final DrawerReplay.Report animation = mReplay.openAndClose();
+        assertEquals(AllocationCounter.getSites(), 0, animation.allocations);
+    }
+    
+    @Test
+    public void tapToCloseAllocatesNothing() {
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        final DrawerReplay.Report report = mReplay.replay(DrawerReplay.tap(mReplay.drawer.getWidth() - 10, 100));
+        assertEquals(AllocationCounter.getSites(), 0, report.allocations);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerFreezeTest {
+    private static final int CONTENT = 0;
+    
+    private static View content(DrawerReplay replay) {
+        return ((ViewGroup) replay.activity.findViewById(android.R.id.content)).getChildAt(CONTENT);
+    }
+    
+    private static CountingListener openFrozen(DrawerReplay replay) {
+        final CountingListener listener = new CountingListener();
+        replay.drawer.setOnContentFreezeListener(listener);
+        replay.drawer.setFreezeContentWhenOpened(true);
+        replay.drawer.openLeftSide();
+        replay.settle();
+        return listener;
+    }
+    
+    @Test
+    public void openedContentIsFrozen() {
+        final DrawerReplay replay = new DrawerReplay();
+        final CountingListener listener = openFrozen(replay);
+        assertEquals(1, listener.mFrozen);
+        assertFalse(content(replay).isShown());
+        
+        replay.drawer.closeLeftSide();
+        replay.settle();
+        assertEquals(1, listener.mThawed);
+        assertTrue(content(replay).isShown());
+    }
+    
+    @Test
+    public void contentWithHardwareBitmapStaysLive() {
+        //Robolectric does not draw the children of a framework view, so the content root itself draws the bitmap.
+        //the deferred drawer takes the root which is on the decor view when it opens
+        final DrawerReplay replay = new DrawerReplay(true);
+        final ViewGroup decor = (ViewGroup) replay.activity.getWindow().getDecorView();
+        final View root = decor.getChildAt(0);
+        decor.removeView(root);
+        final HardwareBitmapLayout layout = new HardwareBitmapLayout(replay.activity);
+        layout.addView(root);
+        decor.addView(layout, 0, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT,
+                FrameLayout.LayoutParams.MATCH_PARENT));
+        replay.settle();
+        
+        final CountingListener listener = openFrozen(replay);
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+        assertEquals(1, layout.mSoftwareDraws);
+        assertEquals(0, listener.mFrozen);
+        assertTrue(content(replay).isShown());
+        
+        replay.drawer.closeLeftSide();
+        replay.settle();
+        assertEquals(0, listener.mThawed);
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, replay.drawer.getDrawerState());
+    }
+    
+    private static class CountingListener implements SimpleSideDrawer.OnContentFreezeListener {
+        int mFrozen;
+        int mThawed;
+        
+        @Override
+        public void onContentFrozen() {
+            mFrozen++;
+        }
+        
+        @Override
+        public void onContentThawed() {
+            mThawed++;
+        }
+    }
+    
+    /**
+     * Fails on a software canvas as a view drawing a Bitmap.Config.HARDWARE bitmap does.
+     */
+    private static class HardwareBitmapLayout extends FrameLayout {
+        int mSoftwareDraws;
+        
+        HardwareBitmapLayout(Context context) {
+            super(context);
+        }
+        
+        @Override
+        public void draw(Canvas canvas) {
+            if (!canvas.isHardwareAccelerated()) {
+                mSoftwareDraws++;
+                throw new IllegalArgumentException("Software rendering doesn't support hardware bitmaps");
+            }
+            super.draw(canvas);
+        }
+    }
+}
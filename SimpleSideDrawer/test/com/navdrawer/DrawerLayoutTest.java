@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+import org.robolectric.util.ReflectionHelpers.ClassParameter;
+
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.WindowInsets;
+
+/**
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerLayoutTest {
+    private static final int INSET_LEFT = 12;
+    private static final int INSET_TOP = 48;
+    
+    private DrawerReplay mReplay;
+    private DrawerWorkCounters mCounters;
+    
+    @Before
+    public void setUp() {
+        mReplay = new DrawerReplay();
+        mCounters = mReplay.counters;
+        mCounters.reset();
+    }
+    
+    @Test
+    public void layoutRequestMeasuresOnce() {
+        mReplay.drawer.requestLayout();
+        mReplay.settle();
+        assertEquals(1, mCounters.getMeasureCount());
+        assertEquals(1, mCounters.getLayoutCount());
+    }
+    
+    @Test
+    public void contentLayoutRequestMeasuresOnce() {
+        final View content = mReplay.activity.findViewById(android.R.id.content);
+        content.requestLayout();
+        mReplay.settle();
+        assertEquals(1, mCounters.getMeasureCount());
+        assertEquals(1, mCounters.getLayoutCount());
+    }
+    
+    @Test
+    public void drawnFramesDoNotMeasure() {
+        //a measure which requests another layout would measure again in every frame
+        for (int i = 0; i < 30; i++) {
+            mReplay.drawer.invalidate();
+            mReplay.frames(1);
+        }
+        assertEquals(0, mCounters.getMeasureCount());
+        assertEquals(0, mCounters.getLayoutCount());
+    }
+    
+    @Test
+    public void openAndCloseDoNotLayout() {
+        final DrawerReplay.Report report = mReplay.openAndClose();
+        assertTrue(0 < report.frames);
+        assertEquals(0, report.measures);
+        assertEquals(0, report.layouts);
+        
+        mReplay.drawer.openRightSide();
+        mReplay.settle();
+        mReplay.drawer.closeRightSide();
+        mReplay.settle();
+        assertEquals(0, mCounters.getMeasureCount());
+        assertEquals(0, mCounters.getLayoutCount());
+    }
+    
+    @Test
+    public void dragDoesNotLayout() {
+        final int width = mReplay.drawer.getWidth();
+        final DrawerReplay.Report open = mReplay.replay(DrawerReplay.drag(2, width * 0.6f, 100, 300));
+        assertEquals(SimpleSideDrawer.STATE_OPEN, mReplay.drawer.getDrawerState());
+        final DrawerReplay.Report close = mReplay.replay(DrawerReplay.drag(width - 10, width * 0.4f, 100, 300));
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, mReplay.drawer.getDrawerState());
+        assertEquals(0, open.measures + close.measures);
+        assertEquals(0, open.layouts + close.layouts);
+    }
+    
+    @Test
+    public void hiddenMenuRefusesUser() {
+        final View menu = mReplay.drawer.getLeftBehindView();
+        menu.setClickable(true);
+        final View base = (View) menu.getParent();
+        assertFalse(dispatchDown(base));
+        assertEquals(View.IMPORTANT_FOR_ACCESSIBILITY_NO_HIDE_DESCENDANTS, base.getImportantForAccessibility());
+        
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        assertTrue(dispatchDown(base));
+        assertEquals(View.IMPORTANT_FOR_ACCESSIBILITY_AUTO, base.getImportantForAccessibility());
+        
+        mReplay.drawer.closeLeftSide();
+        mReplay.settle();
+        assertFalse(dispatchDown(base));
+    }
+    
+    @Test
+    public void insetChangeRefitsShownMenuOnly() {
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        final View left = base(mReplay.drawer.getLeftBehindView());
+        final View right = base(mReplay.drawer.getRightBehindView());
+        final int leftTop = left.getTop();
+        final int rightTop = right.getTop();
+        
+        mCounters.reset();
+        applyInsets(INSET_LEFT, INSET_TOP);
+        assertFalse(mReplay.drawer.isLayoutRequested());
+        mReplay.settle();
+        assertEquals(0, mCounters.getMeasureCount());
+        assertEquals(0, mCounters.getLayoutCount());
+        assertEquals(leftTop + INSET_TOP, left.getTop());
+        assertEquals(INSET_LEFT, left.getLeft());
+        //the opened drawer follows the moved menu
+        assertEquals(-left.getWidth(), aboveOffset());
+        assertEquals(rightTop, right.getTop());
+    }
+    
+    @Test
+    public void closedMenuTakesInsetsWhenOpened() {
+        final View right = base(mReplay.drawer.getRightBehindView());
+        final int rightTop = right.getTop();
+        applyInsets(INSET_LEFT, INSET_TOP);
+        mReplay.settle();
+        assertEquals(rightTop, right.getTop());
+        
+        mCounters.reset();
+        mReplay.drawer.openRightSide();
+        assertEquals(rightTop + INSET_TOP, right.getTop());
+        mReplay.settle();
+        assertEquals(0, mCounters.getMeasureCount());
+        assertEquals(0, mCounters.getLayoutCount());
+        assertEquals(SimpleSideDrawer.STATE_OPEN, mReplay.drawer.getDrawerState());
+        assertEquals(right.getWidth(), aboveOffset());
+    }
+    
+    private void applyInsets(int left, int top) {
+        final WindowInsets insets = ReflectionHelpers.callConstructor(WindowInsets.class,
+                ClassParameter.from(Rect.class, new Rect(left, top, 0, 0)));
+        //only the drawer, the content root fits the system windows with a layout pass of its own
+        mReplay.drawer.onApplyWindowInsets(insets);
+    }
+    
+    private static View base(View menu) {
+        return (View) menu.getParent();
+    }
+    
+    private int aboveOffset() {
+        return ReflectionHelpers.callInstanceMethod(mReplay.drawer, "getAboveOffset");
+    }
+    
+    private static boolean dispatchDown(View view) {
+        final long now = SystemClock.uptimeMillis();
+        final MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, 10, 10, 0);
+        final boolean handled = view.dispatchTouchEvent(down);
+        down.recycle();
+        return handled;
+    }
+}
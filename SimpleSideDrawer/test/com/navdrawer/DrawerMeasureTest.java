@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Rect;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewGroup.LayoutParams;
+import android.view.Window;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+/**
+ * <p>Compare the measure passes and the measure time of the menus with the behind stack the drawer used to build.</p>
+ * <p>Both measure a menu once per pass. The drawer saves the two levels between the window and
+ * the menus, and the display fit of each pass.</p>
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerMeasureTest {
+    //a LinearLayout filling the width, like most menu layouts
+    private static final int MENU_LAYOUT = android.R.layout.activity_list_item;
+    private static final int CONTENT_ROWS = 40;
+    private static final int WARM_UP = 200;
+    private static final int RUNS = 201;
+    //the timing is not exact on a shared machine
+    private static final long TIME_MARGIN = 2;
+    
+    private DrawerReplay mReplay;
+    
+    @Before
+    public void setUp() {
+        mReplay = new DrawerReplay(false, MENU_LAYOUT);
+    }
+    
+    @Test
+    public void drawerMeasuresMenusOnce() {
+        final CountingView left = addCountingView(fillWidth(mReplay.drawer.getLeftBehindView()));
+        final CountingView right = addCountingView(fillWidth(mReplay.drawer.getRightBehindView()));
+        final CountingView content = addCountingView(mReplay.activity.findViewById(android.R.id.content));
+        mReplay.settle();
+        
+        left.reset();
+        right.reset();
+        content.reset();
+        mReplay.counters.reset();
+        left.requestLayout();
+        right.requestLayout();
+        content.requestLayout();
+        mReplay.settle();
+        assertEquals(1, mReplay.counters.getMeasureCount());
+        assertEquals(1, left.getMeasureCount());
+        assertEquals(1, right.getMeasureCount());
+        assertEquals(1, content.getMeasureCount());
+    }
+    
+    @Test
+    public void legacyDrawerMeasuresMenusOnce() {
+        final LegacyDrawer legacy = new LegacyDrawer(DrawerReplay.startActivity());
+        final CountingView left = addCountingView(legacy.mLeftBehindBase.getChildAt(0));
+        settle();
+        
+        left.reset();
+        legacy.mMeasureCount = 0;
+        left.requestLayout();
+        settle();
+        //the weighted spacer has no width to share with the wrapping bases, so it does not measure them again,
+        //and the layout request of the display fit stops at the drawer, which is in the measure pass
+        assertEquals(1, legacy.mMeasureCount);
+        assertEquals(1, left.getMeasureCount());
+    }
+    
+    /**
+     * Time a measure and layout pass of each hierarchy, with the left menu shown.
+     * Robolectric does not run the platform code of a device, so compare the numbers with each other only.
+     */
+    @Test
+    public void drawerTraversalIsNotSlowerThanLegacy() {
+        addContentRows(mReplay.activity);
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        
+        final Activity activity = DrawerReplay.startActivity();
+        addContentRows(activity);
+        final LegacyDrawer legacy = new LegacyDrawer(activity);
+        //the legacy drawer hides the closed side
+        legacy.mRightBehindBase.setVisibility(View.GONE);
+        settle();
+        
+        //one pass of each in turn, so that both see the same compiled code and the same collections
+        final long[] drawerTimes = new long[RUNS];
+        final long[] legacyTimes = new long[RUNS];
+        for (int i = -WARM_UP; i < RUNS; i++) {
+            final long drawerTime = traversalNanos(mReplay.drawer);
+            final long legacyTime = traversalNanos(legacy);
+            if (i >= 0) {
+                drawerTimes[i] = drawerTime;
+                legacyTimes[i] = legacyTime;
+            }
+        }
+        final long drawerTime = median(drawerTimes);
+        final long legacyTime = median(legacyTimes);
+        System.out.println("measure and layout, median of " + RUNS + ": drawer=" + drawerTime / 1000
+                + "us legacy=" + legacyTime / 1000 + "us");
+        assertTrue("drawer=" + drawerTime + "ns legacy=" + legacyTime + "ns", drawerTime < legacyTime * TIME_MARGIN);
+    }
+    
+    private static void settle() {
+        ShadowLooper.idleMainLooper(DrawerReplay.SETTLE_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    private static void addContentRows(Activity activity) {
+        final ViewGroup content = (ViewGroup) ((ViewGroup) activity.findViewById(android.R.id.content)).getChildAt(0);
+        final LinearLayout rows = new LinearLayout(activity);
+        rows.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < CONTENT_ROWS; i++) {
+            final TextView row = new TextView(activity);
+            row.setText("row " + i);
+            rows.addView(row);
+        }
+        content.addView(rows);
+    }
+    
+    /**
+     * @return The time of a measure and layout pass which visits every view
+     */
+    private static long traversalNanos(View root) {
+        final int width = root.getWidth();
+        final int height = root.getHeight();
+        forceLayout(root);
+        final long start = System.nanoTime();
+        root.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, width, height);
+        return System.nanoTime() - start;
+    }
+    
+    private static long median(long[] times) {
+        Arrays.sort(times);
+        return times[times.length / 2];
+    }
+    
+    private static void forceLayout(View view) {
+        view.forceLayout();
+        if (view instanceof ViewGroup) {
+            final ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                forceLayout(group.getChildAt(i));
+            }
+        }
+    }
+    
+    /**
+     * The harness gives the menus a fixed width, put back the width of the layout.
+     */
+    private static View fillWidth(View menu) {
+        final LayoutParams params = menu.getLayoutParams();
+        params.width = LayoutParams.MATCH_PARENT;
+        menu.setLayoutParams(params);
+        return menu;
+    }
+    
+    private static CountingView addCountingView(View parent) {
+        final CountingView view = new CountingView(parent.getContext());
+        ((ViewGroup) parent).addView(view);
+        return view;
+    }
+    
+    /**
+     * The drawer before it measured the bases itself, as it wrapped the content:
+     * a horizontal stack of two horizontal bases around a weighted spacer, under the above view,
+     * and a fit to the display which requests a layout from each measure pass.
+     */
+    private static class LegacyDrawer extends FrameLayout {
+        private final Window mWindow;
+        private final LinearLayout mBehindView;
+        final LinearLayout mLeftBehindBase;
+        final LinearLayout mRightBehindBase;
+        int mMeasureCount;
+        
+        LegacyDrawer(Activity act) {
+            super(act);
+            final Context context = act;
+            mWindow = act.getWindow();
+            final int fp = LayoutParams.MATCH_PARENT;
+            final int wp = LayoutParams.WRAP_CONTENT;
+            mBehindView = new LinearLayout(context);
+            mBehindView.setLayoutParams(new LinearLayout.LayoutParams(fp, fp));
+            mBehindView.setOrientation(LinearLayout.HORIZONTAL);
+            mLeftBehindBase = new LinearLayout(context);
+            mBehindView.addView(mLeftBehindBase, new LinearLayout.LayoutParams(wp, fp));
+            mBehindView.addView(new View(context), new LinearLayout.LayoutParams(0, fp, 1));
+            mRightBehindBase = new LinearLayout(context);
+            mBehindView.addView(mRightBehindBase, new LinearLayout.LayoutParams(wp, fp));
+            addView(mBehindView);
+            final LayoutInflater inflater = LayoutInflater.from(context);
+            inflater.inflate(MENU_LAYOUT, mLeftBehindBase);
+            inflater.inflate(MENU_LAYOUT, mRightBehindBase);
+            
+            final FrameLayout aboveView = new FrameLayout(context);
+            aboveView.setLayoutParams(new FrameLayout.LayoutParams(fp, fp));
+            final View overlay = new View(context);
+            overlay.setVisibility(View.GONE);
+            
+            final ViewGroup decor = (ViewGroup) mWindow.getDecorView();
+            final ViewGroup above = (ViewGroup) decor.getChildAt(0);
+            decor.removeView(above);
+            aboveView.addView(above);
+            aboveView.addView(overlay, new FrameLayout.LayoutParams(fp, fp));
+            decor.addView(this);
+            addView(aboveView);
+        }
+        
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            mMeasureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            final Rect rect = new Rect();
+            mWindow.getDecorView().getWindowVisibleDisplayFrame(rect);
+            mBehindView.setPadding(rect.left, rect.top, 0, 0);
+            mBehindView.requestLayout();
+        }
+    }
+    
+    private static class CountingView extends View {
+        private int mMeasureCount;
+        
+        CountingView(Context context) {
+            super(context);
+        }
+        
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            mMeasureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+        
+        int getMeasureCount() {
+            return mMeasureCount;
+        }
+        
+        void reset() {
+            mMeasureCount = 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+/**
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerMetricsTest {
+    private DrawerReplay mReplay;
+    private CountingListener mListener;
+    
+    @Before
+    public void setUp() {
+        mReplay = new DrawerReplay();
+        mListener = new CountingListener();
+        mReplay.drawer.setOnAnimationMetricsListener(mListener);
+    }
+    
+    @Test
+    public void openIsReportedOnce() {
+        mReplay.drawer.openLeftSide();
+        mReplay.settle();
+        assertEquals(1, mListener.mCount);
+        assertTrue(mListener.mOpening);
+        assertFalse(mListener.mInterrupted);
+        assertTrue(0 < mListener.mFrameCount);
+        assertTrue(0 < mListener.mFirstFrameLatencyNanos);
+        assertTrue(mListener.mFirstFrameLatencyNanos <= mListener.mSettleDurationNanos);
+    }
+    
+    @Test
+    public void releaseAtRestIsNotReported() {
+        //dragged past the width of the menu, so the release has nothing left to animate
+        final int width = mReplay.drawer.getWidth();
+        mReplay.replay(DrawerReplay.drag(2, width - 2, 100, 300));
+        assertEquals(SimpleSideDrawer.STATE_OPEN, mReplay.drawer.getDrawerState());
+        assertEquals(0, mListener.mCount);
+        
+        mReplay.drawer.closeLeftSide();
+        mReplay.settle();
+        assertEquals(1, mListener.mCount);
+        assertFalse(mListener.mOpening);
+    }
+    
+    private static class CountingListener implements SimpleSideDrawer.OnAnimationMetricsListener {
+        int mCount;
+        boolean mOpening;
+        boolean mInterrupted;
+        int mFrameCount;
+        long mFirstFrameLatencyNanos;
+        long mSettleDurationNanos;
+        
+        @Override
+        public void onAnimationMetrics(DrawerAnimationMetrics metrics) {
+            mCount++;
+            mOpening = metrics.isOpening();
+            mInterrupted = metrics.isInterrupted();
+            mFrameCount = metrics.getFrameCount();
+            mFirstFrameLatencyNanos = metrics.getFirstFrameLatencyNanos();
+            mSettleDurationNanos = metrics.getSettleDurationNanos();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowChoreographer;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * <p>Replay gestures on a drawer with a controlled clock, and report the work of each one.</p>
+ * <p>The frames and the touch events run on the Robolectric scheduler, one frame every FRAME_MS,
+ * so the same trace gives the same frames on every run.
+ * The menus are framework layouts, as the library has no resources of its own.</p>
+ * @author Masahiko Adachi
+ */
+final class DrawerReplay {
+    static final int FRAME_MS = 16;
+    //long enough for any animation to end
+    static final int SETTLE_MS = 2000;
+    private static final int FRAME_CAPACITY = 256;
+    //a list item wraps to its padding without a text
+    static final int MENU_WIDTH = 240;
+    
+    final Activity activity;
+    final SimpleSideDrawer drawer;
+    final DrawerWorkCounters counters = new DrawerWorkCounters(FRAME_CAPACITY);
+    
+    DrawerReplay() {
+        this(false);
+    }
+    
+    DrawerReplay(boolean deferAttach) {
+        this(deferAttach, android.R.layout.simple_list_item_1);
+    }
+    
+    /**
+     * @param menuLayout The layout of both menus
+     */
+    DrawerReplay(boolean deferAttach, int menuLayout) {
+        activity = startActivity();
+        drawer = new SimpleSideDrawer(activity, deferAttach);
+        drawer.setLeftBehindContentView(menuLayout);
+        drawer.setRightBehindContentView(menuLayout);
+        setMenuWidth(drawer.getLeftBehindView());
+        setMenuWidth(drawer.getRightBehindView());
+        drawer.setEdgeSwipeEnabled(true);
+        drawer.setWorkCounters(counters);
+        settle();
+        if (drawer.getWidth() == 0) {
+            throw new IllegalStateException("the drawer is not laid out");
+        }
+    }
+    
+    /**
+     * Start an activity with an empty content, on which the frames run as on a device.
+     */
+    static Activity startActivity() {
+        resetStatics();
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setContentView(new FrameLayout(activity));
+        //the window has its size now. Queue the traversals like a device does, instead of running
+        //them when they are posted, and wait for the next frame, so that a layout loop runs once per frame
+        ShadowLooper.pauseMainLooper();
+        ShadowChoreographer.setPostCallbackDelay(FRAME_MS);
+        ShadowChoreographer.setPostFrameCallbackDelay(FRAME_MS);
+        ShadowChoreographer.setFrameInterval(FRAME_MS * 1000000L);
+        return activity;
+    }
+    
+    /**
+     * Start a test from a fresh process state.
+     */
+    static void resetStatics() {
+        //the ticker lives as long as the process, and would wait for the frame of the last test,
+        //which Robolectric has dropped
+        ReflectionHelpers.setStaticField(DrawerFrameTicker.class, "sInstance", null);
+        DrawerFrameTicker.getInstance();
+        //and Robolectric keeps the frame delays of the last test, which would hold the window size back
+        ShadowChoreographer.setPostCallbackDelay(0);
+        ShadowChoreographer.setPostFrameCallbackDelay(0);
+        //and a test may start a second activity after pausing the looper for the first one
+        ShadowLooper.unPauseMainLooper();
+    }
+    
+    private static void setMenuWidth(View menu) {
+        final ViewGroup.LayoutParams params = menu.getLayoutParams();
+        params.width = MENU_WIDTH;
+        menu.setLayoutParams(params);
+    }
+    
+    /**
+     * Run the frames and the events until nothing is left to do.
+     */
+    void settle() {
+        ShadowLooper.idleMainLooper(SETTLE_MS, TimeUnit.MILLISECONDS);
+        runIdleHandlers();
+    }
+    
+    /**
+     * Robolectric does not draw the window, so draw the drawer as a frame would.
+     */
+    void draw() {
+        draw(drawer);
+    }
+    
+    static void draw(SimpleSideDrawer drawer) {
+        final Bitmap bitmap = Bitmap.createBitmap(drawer.getWidth(), drawer.getHeight(), Bitmap.Config.ARGB_8888);
+        drawer.dispatchDraw(new Canvas(bitmap));
+    }
+    
+    /**
+     * Robolectric never finds the main queue idle, so call its idle handlers as the queue would.
+     */
+    static void runIdleHandlers() {
+        final MessageQueue queue = Looper.myQueue();
+        final List<MessageQueue.IdleHandler> handlers = ReflectionHelpers.getField(queue, "mIdleHandlers");
+        final MessageQueue.IdleHandler[] pending = handlers.toArray(new MessageQueue.IdleHandler[handlers.size()]);
+        for (MessageQueue.IdleHandler handler : pending) {
+            if (!handler.queueIdle()) {
+                queue.removeIdleHandler(handler);
+            }
+        }
+    }
+    
+    /**
+     * Run the frames one by one.
+     */
+    void frames(int count) {
+        for (int i = 0; i < count; i++) {
+            ShadowLooper.idleMainLooper(FRAME_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Replay the trace on the drawer, and run the frames until the drawer rests.
+     */
+    Report replay(GestureTrace trace) {
+        //the player posts the events before the count starts
+        new GestureTracePlayer(trace).replayInRealTime(drawer);
+        counters.reset();
+        AllocationCounter.start();
+        ShadowLooper.idleMainLooper(trace.getDuration() + SETTLE_MS, TimeUnit.MILLISECONDS);
+        return new Report(counters, AllocationCounter.stop());
+    }
+    
+    /**
+     * Open the left side with open(), then close it, and run the frames until the drawer rests.
+     */
+    Report openAndClose() {
+        counters.reset();
+        AllocationCounter.start();
+        drawer.openLeftSide();
+        settle();
+        drawer.closeLeftSide();
+        settle();
+        return new Report(counters, AllocationCounter.stop());
+    }
+    
+    /**
+     * A straight horizontal drag, one move per frame.
+     */
+    static GestureTrace drag(float fromX, float toX, float y, int durationMs) {
+        final GestureTrace trace = new GestureTrace();
+        trace.addEvent(MotionEvent.ACTION_DOWN);
+        trace.addSample(0, fromX, y);
+        for (int t = FRAME_MS; t < durationMs; t += FRAME_MS) {
+            trace.addEvent(MotionEvent.ACTION_MOVE);
+            trace.addSample(t, fromX + (toX - fromX) * t / durationMs, y);
+        }
+        trace.addEvent(MotionEvent.ACTION_MOVE);
+        trace.addSample(durationMs, toX, y);
+        trace.addEvent(MotionEvent.ACTION_UP);
+        trace.addSample(durationMs, toX, y);
+        return trace;
+    }
+    
+    static GestureTrace tap(float x, float y) {
+        final GestureTrace trace = new GestureTrace();
+        trace.addEvent(MotionEvent.ACTION_DOWN);
+        trace.addSample(0, x, y);
+        trace.addEvent(MotionEvent.ACTION_UP);
+        trace.addSample(FRAME_MS * 5, x, y);
+        return trace;
+    }
+    
+    /**
+     * The work of one gesture.
+     */
+    static final class Report {
+        final int[] positions;
+        final int frames;
+        final int measures;
+        final int layouts;
+        final int invalidates;
+        final int allocations;
+        
+        Report(DrawerWorkCounters counters, int allocations) {
+            frames = counters.getFrameCount();
+            positions = new int[Math.min(frames, FRAME_CAPACITY)];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = counters.getPosition(i);
+            }
+            measures = counters.getMeasureCount();
+            layouts = counters.getLayoutCount();
+            invalidates = counters.getInvalidateCount();
+            this.allocations = allocations;
+        }
+        
+        @Override
+        public String toString() {
+            return "frames=" + frames + " measures=" + measures + " layouts=" + layouts
+                    + " invalidates=" + invalidates + " allocations=" + allocations;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+
+/**
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerReplayTest {
+    @Test
+    public void edgeSwipeOpensLeftSide() {
+        final DrawerReplay replay = new DrawerReplay();
+        final int width = replay.drawer.getWidth();
+        final DrawerReplay.Report report = replay.replay(DrawerReplay.drag(2, width * 0.7f, 100, 300));
+        
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+        assertEquals(SimpleSideDrawer.SIDE_LEFT, replay.drawer.getDrawerSide());
+        assertTrue(0 < report.frames);
+    }
+    
+    @Test
+    public void replayGivesSameFrames() {
+        final DrawerReplay replay = new DrawerReplay();
+        final int width = replay.drawer.getWidth();
+        final GestureTrace trace = DrawerReplay.drag(2, width * 0.3f, 100, 200);
+        final DrawerReplay.Report expected = replay.replay(trace);
+        replay.drawer.closeLeftSide();
+        replay.settle();
+        final DrawerReplay.Report actual = replay.replay(trace);
+        
+        assertArrayEquals(expected.positions, actual.positions);
+        assertEquals(expected.measures, actual.measures);
+        assertEquals(expected.layouts, actual.layouts);
+        assertEquals(expected.invalidates, actual.invalidates);
+    }
+    
+    @Test
+    public void tapOnAboveClosesSide() {
+        final DrawerReplay replay = new DrawerReplay();
+        replay.drawer.openLeftSide();
+        replay.settle();
+        final int width = replay.drawer.getWidth();
+        final DrawerReplay.Report report = replay.replay(DrawerReplay.tap(width - 10, 100));
+        
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, replay.drawer.getDrawerState());
+        assertTrue(0 < report.frames);
+    }
+    
+    @Test
+    public void recordedTraceReplaysTheSame() throws IOException {
+        final DrawerReplay replay = new DrawerReplay();
+        final GestureTraceRecorder recorder = new GestureTraceRecorder();
+        replay.drawer.setGestureTraceRecorder(recorder);
+        recorder.start();
+        final int width = replay.drawer.getWidth();
+        final GestureTrace trace = DrawerReplay.drag(2, width * 0.7f, 100, 300);
+        final DrawerReplay.Report expected = replay.replay(trace);
+        recorder.stop();
+        final GestureTrace recorded = recorder.getTrace();
+        GestureTraceTest.assertTraceEquals(trace, recorded);
+        
+        //saved to a file and replayed on another drawer
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recorded.writeTo(out);
+        final GestureTrace saved = GestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        final DrawerReplay.Report actual = new DrawerReplay().replay(saved);
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+        assertTrue(0 < expected.frames);
+        assertArrayEquals(expected.positions, actual.positions);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+/**
+ * Check that the open/close requests do not disturb a drawer which is already going there, or the finger.
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerRequestTest {
+    /**
+     * @return The above view offsets of the frames of an uninterrupted opening
+     */
+    private static int[] openOnce() {
+        final DrawerReplay replay = new DrawerReplay();
+        replay.drawer.openLeftSide();
+        replay.settle();
+        return new DrawerReplay.Report(replay.counters, 0).positions;
+    }
+    
+    private static List<Integer> recordStates(DrawerReplay replay) {
+        final List<Integer> states = new ArrayList<Integer>();
+        replay.drawer.setOnDrawerStateChangeListener(new SimpleSideDrawer.OnDrawerStateChangeListener() {
+            @Override
+            public void onDrawerStateChanged(int state, int side) {
+                states.add(state);
+            }
+        });
+        return states;
+    }
+    
+    @Test
+    public void repeatedOpenIsIgnored() {
+        final int[] expected = openOnce();
+        final DrawerReplay replay = new DrawerReplay();
+        final List<Integer> states = recordStates(replay);
+        replay.counters.reset();
+        replay.drawer.openLeftSide();
+        replay.frames(3);
+        replay.drawer.openLeftSide();
+        replay.drawer.openRightSide();
+        replay.settle();
+        replay.drawer.openLeftSide();
+        replay.settle();
+        
+        assertArrayEquals(expected, new DrawerReplay.Report(replay.counters, 0).positions);
+        assertEquals(Arrays.asList(SimpleSideDrawer.STATE_OPENING, SimpleSideDrawer.STATE_OPEN), states);
+    }
+    
+    @Test
+    public void repeatedCloseIsIgnored() {
+        final DrawerReplay replay = new DrawerReplay();
+        replay.drawer.openLeftSide();
+        replay.settle();
+        final List<Integer> states = recordStates(replay);
+        replay.counters.reset();
+        replay.drawer.closeLeftSide();
+        replay.frames(3);
+        replay.drawer.closeLeftSide();
+        replay.drawer.closeRightSide();
+        final int frames = replay.counters.getFrameCount();
+        replay.settle();
+        replay.drawer.closeLeftSide();
+        replay.settle();
+        
+        //the frames go on from where the first close left them, and end at the closed position
+        final int[] positions = new DrawerReplay.Report(replay.counters, 0).positions;
+        assertEquals(0, positions[positions.length - 1]);
+        for (int i = Math.max(1, frames); i < positions.length; i++) {
+            assertEquals(true, positions[i - 1] <= positions[i]);
+        }
+        assertEquals(Arrays.asList(SimpleSideDrawer.STATE_CLOSING, SimpleSideDrawer.STATE_CLOSED), states);
+    }
+    
+    @Test
+    public void requestsWhileDraggingAreIgnored() {
+        final DrawerReplay replay = new DrawerReplay();
+        final long down = SystemClock.uptimeMillis();
+        dispatch(replay, down, MotionEvent.ACTION_DOWN, 2);
+        dispatch(replay, down, MotionEvent.ACTION_MOVE, 60);
+        dispatch(replay, down, MotionEvent.ACTION_MOVE, 120);
+        assertEquals(SimpleSideDrawer.STATE_DRAGGING, replay.drawer.getDrawerState());
+        final int offset = aboveOffset(replay);
+        final List<Integer> states = recordStates(replay);
+        
+        replay.drawer.openLeftSide();
+        replay.frames(3);
+        assertEquals(offset, aboveOffset(replay));
+        replay.drawer.closeLeftSide();
+        replay.frames(3);
+        assertEquals(offset, aboveOffset(replay));
+        replay.drawer.toggleLeftDrawer();
+        replay.drawer.openRightSide();
+        replay.frames(3);
+        assertEquals(offset, aboveOffset(replay));
+        assertEquals(SimpleSideDrawer.STATE_DRAGGING, replay.drawer.getDrawerState());
+        
+        //the finger still moves the drawer, and its release decides the state
+        dispatch(replay, down, MotionEvent.ACTION_MOVE, 110);
+        assertEquals(offset + 10, aboveOffset(replay));
+        dispatch(replay, down, MotionEvent.ACTION_MOVE, 80);
+        dispatch(replay, down, MotionEvent.ACTION_MOVE, 50);
+        dispatch(replay, down, MotionEvent.ACTION_UP, 50);
+        replay.settle();
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, replay.drawer.getDrawerState());
+        assertEquals(Arrays.asList(SimpleSideDrawer.STATE_CLOSING, SimpleSideDrawer.STATE_CLOSED), states);
+    }
+    
+    private static void dispatch(DrawerReplay replay, long downTime, int action, float x) {
+        final MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, 100, 0);
+        replay.drawer.dispatchTouchEvent(event);
+        event.recycle();
+        replay.frames(1);
+    }
+    
+    private static int aboveOffset(DrawerReplay replay) {
+        return ReflectionHelpers.callInstanceMethod(replay.drawer, "getAboveOffset");
+    }
+}
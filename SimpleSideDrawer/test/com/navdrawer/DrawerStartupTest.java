@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import android.app.Activity;
+import android.view.MotionEvent;
+import android.view.SurfaceView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+/**
+ * <p>Check when a deferred drawer moves the content, and time the start of an activity with
+ * and without the drawer.</p>
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerStartupTest {
+    private static final int WARM_UP = 10;
+    private static final int RUNS = 21;
+    private static final int CONTENT_ROWS = 40;
+    //the timing is not exact on a shared machine
+    private static final long TIME_MARGIN = 2;
+    
+    private static final int NO_DRAWER = 0;
+    private static final int EAGER = 1;
+    private static final int DEFERRED = 2;
+    //the deferred drawer, with the idle move of the content and the traversal after it
+    private static final int DEFERRED_IDLE = 3;
+    
+    private static boolean isWrapped(DrawerReplay replay) {
+        ViewParent parent = replay.activity.findViewById(android.R.id.content).getParent();
+        while (parent != null) {
+            if (parent == replay.drawer) return true;
+            parent = parent.getParent();
+        }
+        return false;
+    }
+    
+    private static ViewGroup content(DrawerReplay replay) {
+        return (ViewGroup) ((ViewGroup) replay.activity.findViewById(android.R.id.content)).getChildAt(0);
+    }
+    
+    @Test
+    public void deferredDrawerWrapsWhenIdle() {
+        final DrawerReplay replay = new DrawerReplay(true);
+        assertFalse(isWrapped(replay));
+        replay.draw();
+        replay.settle();
+        assertTrue(isWrapped(replay));
+    }
+    
+    @Test
+    public void focusedContentWaitsForOpen() {
+        final DrawerReplay replay = new DrawerReplay(true);
+        final EditText edit = new EditText(replay.activity);
+        content(replay).addView(edit);
+        assertTrue(edit.requestFocus());
+        replay.settle();
+        replay.draw();
+        replay.settle();
+        assertFalse(isWrapped(replay));
+        assertTrue(edit.isFocused());
+        
+        replay.drawer.openLeftSide();
+        replay.settle();
+        assertTrue(isWrapped(replay));
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+    }
+    
+    @Test
+    public void surfaceContentWaitsForOpen() {
+        final DrawerReplay replay = new DrawerReplay(true);
+        content(replay).addView(new SurfaceView(replay.activity));
+        replay.settle();
+        replay.draw();
+        replay.settle();
+        assertFalse(isWrapped(replay));
+        
+        replay.drawer.openLeftSide();
+        replay.settle();
+        assertTrue(isWrapped(replay));
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+    }
+    
+    @Test
+    public void firstEdgeTapReachesContent() {
+        final DrawerReplay eager = new DrawerReplay(false);
+        final List<Integer> expected = recordContentTouches(eager);
+        eager.replay(DrawerReplay.tap(2, 100));
+        
+        final DrawerReplay deferred = new DrawerReplay(true);
+        final List<Integer> actual = recordContentTouches(deferred);
+        deferred.replay(DrawerReplay.tap(2, 100));
+        assertTrue(isWrapped(deferred));
+        assertEquals(Arrays.asList(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_UP), expected);
+        assertEquals(expected, actual);
+    }
+    
+    @Test
+    public void firstEdgeSwipeOpensLeftSide() {
+        final DrawerReplay eager = new DrawerReplay(false);
+        final List<Integer> expected = recordContentTouches(eager);
+        final int width = eager.drawer.getWidth();
+        final DrawerReplay.Report expectedReport = eager.replay(DrawerReplay.drag(2, width * 0.7f, 100, 300));
+        
+        final DrawerReplay deferred = new DrawerReplay(true);
+        final List<Integer> actual = recordContentTouches(deferred);
+        final DrawerReplay.Report actualReport = deferred.replay(DrawerReplay.drag(2, width * 0.7f, 100, 300));
+        assertEquals(SimpleSideDrawer.STATE_OPEN, deferred.drawer.getDrawerState());
+        assertEquals(SimpleSideDrawer.SIDE_LEFT, deferred.drawer.getDrawerSide());
+        assertArrayEquals(expectedReport.positions, actualReport.positions);
+        assertEquals(expected, actual);
+    }
+    
+    /**
+     * @return The actions the content receives from now on
+     */
+    private static List<Integer> recordContentTouches(DrawerReplay replay) {
+        final List<Integer> actions = new ArrayList<Integer>();
+        final View view = new View(replay.activity);
+        view.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                actions.add(event.getActionMasked());
+                return true;
+            }
+        });
+        content(replay).addView(view, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+        replay.settle();
+        return actions;
+    }
+    
+    /**
+     * Time an activity from its creation to its first frame.
+     * The activity start of Robolectric takes much longer than the drawer, which is lost in its noise,
+     * so the deferred drawer is only checked to add no visible time. deferredDrawerLeavesMenuOutOfFirstFrame
+     * checks the work it leaves out.
+     */
+    @Test
+    public void deferredDrawerAddsNoStartupTime() {
+        final String[] names = { "no drawer", "eager", "deferred", "deferred+idle" };
+        final long[][] times = new long[names.length][RUNS];
+        for (int i = 0; i < WARM_UP + RUNS; i++) {
+            for (int mode = NO_DRAWER; mode <= DEFERRED_IDLE; mode++) {
+                final long time = startToFirstFrame(mode);
+                if (i >= WARM_UP) {
+                    times[mode][i - WARM_UP] = time;
+                }
+            }
+        }
+        final long[] medians = new long[names.length];
+        final StringBuilder report = new StringBuilder("startup to first frame, median of " + RUNS + ":");
+        for (int mode = NO_DRAWER; mode <= DEFERRED_IDLE; mode++) {
+            Arrays.sort(times[mode]);
+            medians[mode] = times[mode][RUNS / 2];
+            report.append(' ').append(names[mode]).append('=').append(medians[mode] / 1000).append("us");
+        }
+        System.out.println(report);
+        assertTrue(report.toString(), medians[DEFERRED] < medians[NO_DRAWER] * TIME_MARGIN);
+    }
+    
+    @Test
+    public void deferredDrawerLeavesMenuOutOfFirstFrame() {
+        final SimpleSideDrawer eager = startToFirstFrame(EAGER, false);
+        assertTrue(eager.getLeftBehindView().getMeasuredWidth() != 0);
+        assertTrue(eager.getChildCount() != 0);
+        
+        final SimpleSideDrawer deferred = startToFirstFrame(DEFERRED, false);
+        assertEquals(0, deferred.getLeftBehindView().getMeasuredWidth());
+        assertEquals(0, deferred.getChildCount());
+        
+        final SimpleSideDrawer idle = startToFirstFrame(DEFERRED_IDLE, false);
+        assertTrue(idle.getLeftBehindView().getMeasuredWidth() != 0);
+        assertTrue(idle.getChildCount() != 0);
+    }
+    
+    private static long startToFirstFrame(int mode) {
+        final long start = System.nanoTime();
+        startToFirstFrame(mode, true);
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * @param destroy true to destroy the activity after its first frame
+     * @return The drawer, or null for NO_DRAWER
+     */
+    private static SimpleSideDrawer startToFirstFrame(int mode, boolean destroy) {
+        DrawerReplay.resetStatics();
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).create();
+        final Activity activity = controller.get();
+        activity.setContentView(contentView(activity));
+        SimpleSideDrawer drawer = null;
+        if (mode != NO_DRAWER) {
+            drawer = new SimpleSideDrawer(activity, mode != EAGER);
+            drawer.setLeftBehindContentView(android.R.layout.simple_list_item_1);
+        }
+        controller.start().resume().visible();
+        //the first traversal. Robolectric does not draw, and the frame would draw the same views in every mode
+        ShadowLooper.idleMainLooper();
+        if (mode == DEFERRED_IDLE) {
+            DrawerReplay.draw(drawer);
+            DrawerReplay.runIdleHandlers();
+            ShadowLooper.idleMainLooper();
+        }
+        if (destroy) {
+            controller.pause().stop().destroy();
+        }
+        return drawer;
+    }
+    
+    private static View contentView(Activity activity) {
+        final LinearLayout content = new LinearLayout(activity);
+        content.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < CONTENT_ROWS; i++) {
+            final TextView row = new TextView(activity);
+            row.setText("row " + i);
+            content.addView(row);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.ReflectionHelpers;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+
+/**
+ * Check that saveState() and restoreState() bring back the opened side and the menu states, without an animation.
+ * @author Masahiko Adachi
+ */
+@RunWith(DrawerTestRunner.class)
+@Config(sdk = 27, manifest = Config.NONE)
+public class DrawerStateTest {
+    //a LinearLayout, so that an edit text can be added
+    private static final int MENU_LAYOUT = android.R.layout.activity_list_item;
+    private static final int EDIT_ID = 0x7f0a0001;
+    private static final String TEXT = "saved";
+    
+    /**
+     * Open the side of a drawer with a typed menu, and save it.
+     */
+    private static Bundle saveOpened(int side) {
+        final DrawerReplay replay = new DrawerReplay(false, MENU_LAYOUT);
+        final EditText edit = addEdit(menu(replay.drawer, side));
+        edit.setText(TEXT);
+        if (side == SimpleSideDrawer.SIDE_LEFT) {
+            replay.drawer.openLeftSide();
+        } else {
+            replay.drawer.openRightSide();
+        }
+        replay.settle();
+        final Bundle state = new Bundle();
+        replay.drawer.saveState(state);
+        return state;
+    }
+    
+    private static ViewGroup menu(SimpleSideDrawer drawer, int side) {
+        return (ViewGroup) (side == SimpleSideDrawer.SIDE_LEFT ? drawer.getLeftBehindView() : drawer.getRightBehindView());
+    }
+    
+    private static EditText addEdit(ViewGroup menu) {
+        final EditText edit = new EditText(menu.getContext());
+        edit.setId(EDIT_ID);
+        menu.addView(edit);
+        return edit;
+    }
+    
+    private static List<Integer> recordStates(SimpleSideDrawer drawer) {
+        final List<Integer> states = new ArrayList<Integer>();
+        drawer.setOnDrawerStateChangeListener(new SimpleSideDrawer.OnDrawerStateChangeListener() {
+            @Override
+            public void onDrawerStateChanged(int state, int side) {
+                states.add(state);
+            }
+        });
+        return states;
+    }
+    
+    private static int aboveOffset(SimpleSideDrawer drawer) {
+        return ReflectionHelpers.callInstanceMethod(drawer, "getAboveOffset");
+    }
+    
+    @Test
+    public void laidOutDrawerIsRestoredOpened() {
+        final Bundle state = saveOpened(SimpleSideDrawer.SIDE_LEFT);
+        final DrawerReplay replay = new DrawerReplay(false, MENU_LAYOUT);
+        final EditText edit = addEdit(menu(replay.drawer, SimpleSideDrawer.SIDE_LEFT));
+        final List<Integer> states = recordStates(replay.drawer);
+        replay.counters.reset();
+        replay.drawer.restoreState(state);
+        replay.settle();
+        
+        assertEquals(SimpleSideDrawer.STATE_OPEN, replay.drawer.getDrawerState());
+        assertEquals(SimpleSideDrawer.SIDE_LEFT, replay.drawer.getDrawerSide());
+        assertEquals(-DrawerReplay.MENU_WIDTH, aboveOffset(replay.drawer));
+        assertEquals(TEXT, edit.getText().toString());
+        //no opening, and a single frame at the opened position
+        assertEquals(Arrays.asList(SimpleSideDrawer.STATE_OPEN), states);
+        assertEquals(1, replay.counters.getFrameCount());
+        assertEquals(-DrawerReplay.MENU_WIDTH, replay.counters.getPosition(0));
+    }
+    
+    /**
+     * Restore in onCreate(), as an Activity does after a configuration change.
+     */
+    @Test
+    public void newDrawerIsRestoredOpenedFromFirstFrame() {
+        final Bundle state = saveOpened(SimpleSideDrawer.SIDE_RIGHT);
+        DrawerReplay.resetStatics();
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).create();
+        final Activity activity = controller.get();
+        activity.setContentView(new FrameLayout(activity));
+        final SimpleSideDrawer drawer = new SimpleSideDrawer(activity);
+        drawer.setRightBehindContentView(MENU_LAYOUT);
+        final ViewGroup menu = menu(drawer, SimpleSideDrawer.SIDE_RIGHT);
+        menu.getLayoutParams().width = DrawerReplay.MENU_WIDTH;
+        final EditText edit = addEdit(menu);
+        final DrawerWorkCounters counters = new DrawerWorkCounters(1);
+        drawer.setWorkCounters(counters);
+        final List<Integer> states = recordStates(drawer);
+        drawer.restoreState(state);
+        
+        controller.start().resume().visible();
+        ShadowLooper.idleMainLooper();
+        assertEquals(SimpleSideDrawer.STATE_OPEN, drawer.getDrawerState());
+        assertEquals(SimpleSideDrawer.SIDE_RIGHT, drawer.getDrawerSide());
+        assertEquals(DrawerReplay.MENU_WIDTH, aboveOffset(drawer));
+        assertEquals(TEXT, edit.getText().toString());
+        assertEquals(Arrays.asList(SimpleSideDrawer.STATE_OPEN), states);
+        assertEquals(1, counters.getFrameCount());
+        assertEquals(DrawerReplay.MENU_WIDTH, counters.getPosition(0));
+    }
+    
+    @Test
+    public void closedDrawerIsRestoredClosed() {
+        final DrawerReplay saved = new DrawerReplay(false, MENU_LAYOUT);
+        addEdit(menu(saved.drawer, SimpleSideDrawer.SIDE_LEFT)).setText(TEXT);
+        final Bundle state = new Bundle();
+        saved.drawer.saveState(state);
+        
+        final DrawerReplay replay = new DrawerReplay(false, MENU_LAYOUT);
+        final EditText edit = addEdit(menu(replay.drawer, SimpleSideDrawer.SIDE_LEFT));
+        final List<Integer> states = recordStates(replay.drawer);
+        replay.drawer.restoreState(state);
+        replay.settle();
+        assertEquals(SimpleSideDrawer.STATE_CLOSED, replay.drawer.getDrawerState());
+        assertEquals(0, aboveOffset(replay.drawer));
+        assertEquals(TEXT, edit.getText().toString());
+        assertEquals(0, states.size());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * @author Masahiko Adachi
+ */
+public class GestureTraceTest {
+    /**
+     * Check that the traces have the same events and samples.
+     */
+    static void assertTraceEquals(GestureTrace expected, GestureTrace actual) {
+        assertEquals(expected.getEventCount(), actual.getEventCount());
+        for (int event = 0; event < expected.getEventCount(); event++) {
+            assertEquals("action of " + event, expected.getAction(event), actual.getAction(event));
+            assertEquals("samples of " + event, expected.getSampleCount(event), actual.getSampleCount(event));
+            for (int sample = 0; sample < expected.getSampleCount(event); sample++) {
+                final String name = event + "/" + sample;
+                assertEquals("time of " + name, expected.getSampleTime(event, sample), actual.getSampleTime(event, sample));
+                assertEquals("x of " + name, expected.getX(event, sample), actual.getX(event, sample), 0f);
+                assertEquals("y of " + name, expected.getY(event, sample), actual.getY(event, sample), 0f);
+            }
+        }
+        assertEquals(expected.getDuration(), actual.getDuration());
+    }
+    
+    private static GestureTrace roundTrip(GestureTrace trace) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+        return GestureTrace.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+    
+    @Test
+    public void writtenTraceReadsTheSame() throws IOException {
+        final GestureTrace trace = new GestureTrace();
+        trace.addEvent(0);//ACTION_DOWN
+        trace.addSample(0, 2f, 100f);
+        trace.addEvent(2);//ACTION_MOVE, with two historical samples
+        trace.addSample(8, 10.5f, 101f);
+        trace.addSample(12, 20.25f, 101.5f);
+        trace.addSample(16, 31f, 102f);
+        trace.addEvent(1);//ACTION_UP
+        trace.addSample(20, 40f, -3f);
+        assertTraceEquals(trace, roundTrip(trace));
+    }
+    
+    @Test
+    public void longTraceReadsTheSame() throws IOException {
+        final GestureTrace trace = new GestureTrace();
+        for (int event = 0; event < 100; event++) {
+            trace.addEvent(2);
+            for (int sample = 0; sample < 3; sample++) {
+                trace.addSample(event * 16 + sample, event + sample * 0.1f, -event);
+            }
+        }
+        assertTraceEquals(trace, roundTrip(trace));
+    }
+    
+    @Test
+    public void emptyTraceReadsTheSame() throws IOException {
+        final GestureTrace trace = roundTrip(new GestureTrace());
+        assertEquals(0, trace.getEventCount());
+        assertEquals(0, trace.getDuration());
+    }
+    
+    @Test(expected = IOException.class)
+    public void otherStreamIsRejected() throws IOException {
+        GestureTrace.readFrom(new ByteArrayInputStream(new byte[] { 'P', 'K', 3, 4, 0, 0, 0, 0, 0 }));
+    }
+    
+    @Test(expected = IOException.class)
+    public void otherVersionIsRejected() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new GestureTrace().writeTo(out);
+        final byte[] bytes = out.toByteArray();
+        bytes[4] = 2;//the version follows the magic
+        GestureTrace.readFrom(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Masahiko Adachi
+ */
+public class SettleTimeCalculatorTest {
+    private static final float MIN_FLING = 150f;
+    private static final int RANGE = 600;
+    private static final int MAX_DURATION = 180;
+    
+    @Test
+    public void flingDecidesTheTargetAgainstTheLastMove() {
+        assertTrue(SettleTimeCalculator.shouldOpen(2000f, MIN_FLING, false));
+        assertFalse(SettleTimeCalculator.shouldOpen(-2000f, MIN_FLING, true));
+    }
+    
+    @Test
+    public void flingAtTheMinimumVelocityCounts() {
+        assertTrue(SettleTimeCalculator.shouldOpen(MIN_FLING, MIN_FLING, false));
+        assertFalse(SettleTimeCalculator.shouldOpen(-MIN_FLING, MIN_FLING, true));
+    }
+    
+    @Test
+    public void slowReleaseFollowsTheLastMove() {
+        assertTrue(SettleTimeCalculator.shouldOpen(MIN_FLING - 1f, MIN_FLING, true));
+        assertFalse(SettleTimeCalculator.shouldOpen(MIN_FLING - 1f, MIN_FLING, false));
+        assertTrue(SettleTimeCalculator.shouldOpen(-(MIN_FLING - 1f), MIN_FLING, true));
+        assertFalse(SettleTimeCalculator.shouldOpen(0f, MIN_FLING, false));
+    }
+    
+    @Test
+    public void zeroDistanceTakesNoTime() {
+        assertEquals(0, SettleTimeCalculator.computeDuration(0, RANGE, 0f, MIN_FLING, MAX_DURATION));
+        assertEquals(0, SettleTimeCalculator.computeDuration(0, RANGE, 5000f, MIN_FLING, MAX_DURATION));
+    }
+    
+    @Test
+    public void fullRangeWithoutVelocityTakesTheMaxDuration() {
+        assertEquals(MAX_DURATION, SettleTimeCalculator.computeDuration(RANGE, RANGE, 0f, MIN_FLING, MAX_DURATION));
+        assertEquals(MAX_DURATION, SettleTimeCalculator.computeDuration(-RANGE, RANGE, 0f, MIN_FLING, MAX_DURATION));
+    }
+    
+    @Test
+    public void durationScalesWithTheRemainingDistance() {
+        assertEquals(MAX_DURATION / 2, SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, 0f, MIN_FLING, MAX_DURATION));
+        assertEquals(MAX_DURATION / 10, SettleTimeCalculator.computeDuration(RANGE / 10, RANGE, 0f, MIN_FLING, MAX_DURATION));
+    }
+    
+    @Test
+    public void velocityBelowTheMinimumFlingIsIgnored() {
+        final int slow = SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, MIN_FLING - 1f, MIN_FLING, MAX_DURATION);
+        assertEquals(MAX_DURATION / 2, slow);
+    }
+    
+    @Test
+    public void velocityAwayFromTheTargetIsIgnored() {
+        final int away = SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, -5000f, MIN_FLING, MAX_DURATION);
+        assertEquals(MAX_DURATION / 2, away);
+    }
+    
+    @Test
+    public void flingShortensTheSettle() {
+        //twice the time to cover 300px at 12000px/sec
+        assertEquals(50, SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, 12000f, MIN_FLING, MAX_DURATION));
+        final int fast = SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, 30000f, MIN_FLING, MAX_DURATION);
+        assertEquals(20, fast);
+    }
+    
+    @Test
+    public void slowFlingNeverExceedsTheDistanceDuration() {
+        assertEquals(MAX_DURATION / 2, SettleTimeCalculator.computeDuration(RANGE / 2, RANGE, MIN_FLING, MIN_FLING, MAX_DURATION));
+    }
+    
+    @Test
+    public void distanceBeyondTheRangeTakesTheMaxDuration() {
+        assertEquals(MAX_DURATION, SettleTimeCalculator.computeDuration(RANGE * 2, RANGE, 0f, MIN_FLING, MAX_DURATION));
+        assertEquals(MAX_DURATION, SettleTimeCalculator.computeDuration(RANGE, 0, 0f, MIN_FLING, MAX_DURATION));
+    }
+    
+    @Test
+    public void noDurationMeansNoAnimation() {
+        assertEquals(0, SettleTimeCalculator.computeDuration(RANGE, RANGE, 0f, MIN_FLING, 0));
+    }
+}
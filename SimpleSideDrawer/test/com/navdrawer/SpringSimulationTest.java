@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * @author Masahiko Adachi
+ */
+public class SpringSimulationTest {
+    private static final float FRAME = 1f / 60f;
+    private static final int MAX_FRAMES = 600;
+    
+    /**
+     * Run the spring frame by frame until it rests.
+     * @return The most negative position reached, to check the overshoot below the target
+     */
+    private static float runToRest(SpringSimulation spring) {
+        float min = spring.getPosition();
+        for (int i = 0; i < MAX_FRAMES; i++) {
+            if (spring.isAtRest()) return min;
+            spring.step(FRAME);
+            min = Math.min(min, spring.getPosition());
+        }
+        fail("the spring did not come to rest in " + MAX_FRAMES + " frames");
+        return min;
+    }
+    
+    private static SpringSimulation spring(float dampingRatio, float from, float velocity, float to) {
+        final SpringSimulation spring = new SpringSimulation();
+        spring.setSpring(SpringSimulation.DEFAULT_STIFFNESS, dampingRatio);
+        spring.setState(from, velocity);
+        spring.setTarget(to);
+        return spring;
+    }
+    
+    @Test
+    public void criticallyDampedSpringRestsWithoutOvershoot() {
+        final SpringSimulation spring = spring(1f, 0f, 0f, -600f);
+        final float min = runToRest(spring);
+        assertEquals(-600f, spring.getPosition(), SpringSimulation.REST_DISPLACEMENT);
+        assertTrue("overshoot: " + min, -600f - SpringSimulation.REST_DISPLACEMENT <= min);
+    }
+    
+    @Test
+    public void overdampedSpringRestsWithoutOvershoot() {
+        final SpringSimulation spring = spring(2f, 0f, 0f, -600f);
+        final float min = runToRest(spring);
+        assertEquals(-600f, spring.getPosition(), SpringSimulation.REST_DISPLACEMENT);
+        assertTrue("overshoot: " + min, -600f - SpringSimulation.REST_DISPLACEMENT <= min);
+    }
+    
+    @Test
+    public void underdampedSpringOvershootsAndRests() {
+        final SpringSimulation spring = spring(0.3f, 0f, 0f, -600f);
+        final float min = runToRest(spring);
+        assertEquals(-600f, spring.getPosition(), SpringSimulation.REST_DISPLACEMENT);
+        assertTrue("no overshoot: " + min, min < -600f - 10f);
+    }
+    
+    @Test
+    public void releaseVelocityIsKept() {
+        final SpringSimulation spring = spring(1f, -300f, -3000f, -600f);
+        spring.step(0.001f);
+        assertTrue(spring.getPosition() < -300f);
+        assertTrue(spring.getVelocity() < -2000f);
+    }
+    
+    @Test
+    public void oneLongStepEqualsManyShortSteps() {
+        final SpringSimulation coarse = spring(0.5f, 0f, 500f, -600f);
+        final SpringSimulation fine = spring(0.5f, 0f, 500f, -600f);
+        coarse.step(0.2f);
+        for (int i = 0; i < 200; i++) {
+            fine.step(0.001f);
+        }
+        assertEquals(fine.getPosition(), coarse.getPosition(), 0.01f);
+        assertEquals(fine.getVelocity(), coarse.getVelocity(), 0.1f);
+    }
+    
+    @Test
+    public void retargetKeepsThePositionAndTheVelocity() {
+        final SpringSimulation spring = spring(1f, 0f, 0f, -600f);
+        for (int i = 0; i < 5; i++) {
+            spring.step(FRAME);
+        }
+        final float position = spring.getPosition();
+        final float velocity = spring.getVelocity();
+        spring.setTarget(0f);
+        assertEquals(position, spring.getPosition(), 0f);
+        assertEquals(velocity, spring.getVelocity(), 0f);
+        assertFalse(spring.isAtRest());
+        
+        runToRest(spring);
+        assertEquals(0f, spring.getPosition(), SpringSimulation.REST_DISPLACEMENT);
+    }
+    
+    @Test
+    public void stepWithoutElapsedTimeDoesNothing() {
+        final SpringSimulation spring = spring(1f, -100f, 50f, -600f);
+        spring.step(0f);
+        spring.step(-FRAME);
+        assertEquals(-100f, spring.getPosition(), 0f);
+        assertEquals(50f, spring.getVelocity(), 0f);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void undampedSpringIsRejected() {
+        new SpringSimulation().setSpring(SpringSimulation.DEFAULT_STIFFNESS, 0f);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeDampingIsRejected() {
+        new SpringSimulation().setSpring(SpringSimulation.DEFAULT_STIFFNESS, -0.5f);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroStiffnessIsRejected() {
+        new SpringSimulation().setSpring(0f, 1f);
+    }
+}
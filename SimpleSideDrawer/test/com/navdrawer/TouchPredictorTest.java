@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.navdrawer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @author Masahiko Adachi
+ */
+public class TouchPredictorTest {
+    private static final long MS = 1000000L;
+    private static final float DELTA = 0.001f;
+    
+    /**
+     * Add a sample every frame, moving one pixel a millisecond.
+     */
+    private static TouchPredictor steadyMove(long startMs, int samples) {
+        final TouchPredictor predictor = new TouchPredictor();
+        for (int i = 0; i < samples; i++) {
+            final long ms = startMs + i * 8;
+            predictor.addSample(ms * MS, ms);
+        }
+        return predictor;
+    }
+    
+    @Test
+    public void steadyMoveIsExtrapolatedToTheTarget() {
+        final TouchPredictor predictor = steadyMove(0, 3);//the newest at 16ms
+        assertEquals(24f, predictor.predict(24 * MS), DELTA);
+        assertEquals(16f + 16f, predictor.predict(32 * MS), DELTA);
+    }
+    
+    @Test
+    public void horizonIsClampedToTheMaximum() {
+        final TouchPredictor predictor = steadyMove(0, 3);
+        final float horizonMs = TouchPredictor.MAX_HORIZON_NANOS / (float) MS;
+        assertEquals(16f + horizonMs, predictor.predict(16 * MS + TouchPredictor.MAX_HORIZON_NANOS * 4), DELTA);
+    }
+    
+    @Test
+    public void pastTargetGivesTheNewestPosition() {
+        final TouchPredictor predictor = steadyMove(0, 3);
+        assertEquals(16f, predictor.predict(16 * MS), DELTA);
+        assertEquals(16f, predictor.predict(10 * MS), DELTA);
+    }
+    
+    @Test
+    public void singleSampleIsNotExtrapolated() {
+        final TouchPredictor predictor = steadyMove(0, 1);
+        assertTrue(predictor.hasSample());
+        assertEquals(0f, predictor.predict(16 * MS), DELTA);
+    }
+    
+    @Test
+    public void staleSampleIsNotExtrapolated() {
+        final TouchPredictor predictor = new TouchPredictor();
+        predictor.addSample(0, 0f);
+        final long late = TouchPredictor.VELOCITY_WINDOW_NANOS + MS;
+        predictor.addSample(late, 50f);
+        assertEquals(50f, predictor.predict(late + 16 * MS), DELTA);
+    }
+    
+    @Test
+    public void velocityComesFromTheWindowOnly() {
+        final TouchPredictor predictor = new TouchPredictor();
+        predictor.addSample(0, -1000f);//far before the window
+        predictor.addSample(100 * MS, 100f);
+        predictor.addSample(108 * MS, 108f);
+        assertEquals(116f, predictor.predict(116 * MS), DELTA);
+    }
+    
+    @Test
+    public void velocitySurvivesTheBufferWrap() {
+        final TouchPredictor predictor = steadyMove(0, 20);//the newest at 152ms
+        assertEquals(152f, predictor.getLastPosition(), DELTA);
+        assertEquals(160f, predictor.predict(160 * MS), DELTA);
+    }
+    
+    @Test
+    public void resetForgetsTheSamples() {
+        final TouchPredictor predictor = steadyMove(0, 3);
+        predictor.reset();
+        assertFalse(predictor.hasSample());
+        predictor.addSample(24 * MS, 0f);
+        assertEquals(0f, predictor.predict(32 * MS), DELTA);
+    }
+}
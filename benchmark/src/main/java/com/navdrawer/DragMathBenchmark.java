@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navdrawer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>The math of one move sample of a drag: the new offset, the consumed finger position
+ * and the direction, as DragAction runs them for every touch sample.</p>
+ * @author Masahiko Adachi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DragMathBenchmark {
+    private static final int SAMPLES = 256;
+    
+    /**
+     * The offset when the dragged side is opened. Negative for the left side.
+     */
+    @Param({"-600", "600"})
+    public int openedX;
+    
+    private final float[] mMotionX = new float[SAMPLES];
+    private int mSample;
+    private int mCurrentX;
+    private float mLastMotionX;
+    
+    @Setup
+    public void setUp() {
+        //a finger sweeping back and forth beyond the drawer width, with sub-pixel moves
+        for (int i = 0; i < SAMPLES; i++) {
+            mMotionX[i] = 400f + 500f * (float) Math.sin(i * Math.PI * 2 / SAMPLES) + 0.37f * (i % 3);
+        }
+        mSample = 0;
+        mCurrentX = 0;
+        mLastMotionX = mMotionX[0];
+    }
+    
+    @Benchmark
+    public int dragMove() {
+        final float motionX = mMotionX[mSample];
+        mSample = (mSample + 1) % SAMPLES;
+        final int nextX = DrawerMath.dragOffset(mCurrentX, mLastMotionX, motionX, openedX);
+        final boolean opening = DrawerMath.isOpeningMove(openedX < 0, mLastMotionX, motionX);
+        mLastMotionX = DrawerMath.consumedMotionX(mCurrentX, nextX, mLastMotionX, motionX);
+        mCurrentX = nextX;
+        return opening ? nextX : -nextX;
+    }
+    
+    @Benchmark
+    public int clampOffset() {
+        final int x = (int) mMotionX[mSample] - 400;
+        mSample = (mSample + 1) % SAMPLES;
+        return DrawerMath.clampOffset(x, openedX);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navdrawer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>The decision made when a drag is released: the target side and the settle duration,
+ * for releases from a slow drop to a fast fling.</p>
+ * @author Masahiko Adachi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SettleBenchmark {
+    private static final int RELEASES = 64;
+    private static final float MIN_FLING_VELOCITY = 150f;
+    private static final int RANGE = 600;
+    private static final int MAX_DURATION = 180;
+    
+    private final float[] mVelocity = new float[RELEASES];
+    private final int[] mOffset = new int[RELEASES];
+    private int mRelease;
+    
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < RELEASES; i++) {
+            //from -8000 to 8000 pixels/sec, with slow releases around zero
+            final float f = (float) i / (RELEASES - 1) * 2f - 1f;
+            mVelocity[i] = 8000f * f * Math.abs(f);
+            mOffset[i] = RANGE * (i * 7 % RELEASES) / RELEASES;
+        }
+        mRelease = 0;
+    }
+    
+    @Benchmark
+    public int settle() {
+        final int i = mRelease;
+        mRelease = (i + 1) % RELEASES;
+        final float velocity = mVelocity[i];
+        final int currentX = mOffset[i];
+        final boolean open = SettleTimeCalculator.shouldOpen(velocity, MIN_FLING_VELOCITY, (i & 1) == 0);
+        final int distance = (open ? RANGE : 0) - currentX;
+        return SettleTimeCalculator.computeDuration(distance, RANGE, open ? velocity : -velocity,
+                MIN_FLING_VELOCITY, MAX_DURATION);
+    }
+}
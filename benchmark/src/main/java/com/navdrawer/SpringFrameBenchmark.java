@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navdrawer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>One frame of ANIMATION_MODE_SPRING for the three damping regimes.
+ * The spring starts over from a released drag when it comes to rest.</p>
+ * @author Masahiko Adachi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpringFrameBenchmark {
+    private static final float FRAME_SECONDS = 1f / 60f;
+    
+    @Param({"0.5", "1", "1.5"})
+    public float dampingRatio;
+    
+    private final SpringSimulation mSpring = new SpringSimulation();
+    
+    @Setup
+    public void setUp() {
+        mSpring.setSpring(SpringSimulation.DEFAULT_STIFFNESS, dampingRatio);
+        release();
+    }
+    
+    private void release() {
+        mSpring.setState(-150f, -2500f);
+        mSpring.setTarget(-600f);
+    }
+    
+    @Benchmark
+    public float frame() {
+        mSpring.step(FRAME_SECONDS);
+        if (mSpring.isAtRest()) {
+            release();
+        }
+        return mSpring.getPosition();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navdrawer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * <p>The touch prediction of a drag: a sample every 8 msec and a prediction per frame.</p>
+ * @author Masahiko Adachi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TouchPredictorBenchmark {
+    private static final long SAMPLE_NANOS = 8000000L;
+    private static final long FRAME_NANOS = 16666667L;
+    
+    private final TouchPredictor mPredictor = new TouchPredictor();
+    private long mTime;
+    private float mX;
+    
+    @Setup
+    public void setUp() {
+        mPredictor.reset();
+        mTime = 0;
+        mX = 0f;
+        for (int i = 0; i < 8; i++) {
+            addSample();
+        }
+    }
+    
+    private void addSample() {
+        mTime += SAMPLE_NANOS;
+        mX += 12.5f;
+        if (1000f < mX) {
+            mX = 0f;
+        }
+        mPredictor.addSample(mTime, mX);
+    }
+    
+    @Benchmark
+    public void addSampleOnly() {
+        addSample();
+    }
+    
+    @Benchmark
+    public float addSampleAndPredict() {
+        addSample();
+        return mPredictor.predict(mTime + FRAME_NANOS);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2013 Masahiko Adachi(http://www.adamrocker.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.navdrawer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * <p>One frame of a tween: the progress, the interpolation and the position,
+ * as DrawerAnimator runs them on every frame of ANIMATION_MODE_TWEEN.</p>
+ * @author Masahiko Adachi
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TweenFrameBenchmark {
+    private static final long DURATION_NANOS = 180 * 1000000L;
+    private static final long FRAME_NANOS = 16666667L;
+    
+    @Param({"decelerate", "accelerateDecelerate", "linear"})
+    public String interpolator;
+    
+    private Interpolator mInterpolator;
+    private long mElapsed;
+    
+    @Setup
+    public void setUp() {
+        if ("decelerate".equals(interpolator)) {
+            mInterpolator = new DecelerateInterpolator(0.9f);//the default of the drawer
+        } else if ("accelerateDecelerate".equals(interpolator)) {
+            mInterpolator = new AccelerateDecelerateInterpolator();
+        } else {
+            mInterpolator = new LinearInterpolator();
+        }
+        mElapsed = 0;
+    }
+    
+    @Benchmark
+    public int frame() {
+        mElapsed += FRAME_NANOS;
+        if (DURATION_NANOS < mElapsed) {
+            mElapsed = 0;
+        }
+        final float t = DrawerMath.tweenFraction(mElapsed, DURATION_NANOS);
+        return DrawerMath.tweenPosition(0, -600, mInterpolator.getInterpolation(t));
+    }
+}